@@ -0,0 +1,33 @@
+package com.example.store.benchmark;
+
+import com.example.store.StoreApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+final class BenchmarkApplication {
+
+  private BenchmarkApplication() {
+  }
+
+  static ConfigurableApplicationContext start(String databaseName, String... properties) {
+    return new SpringApplicationBuilder(StoreApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "logging.level.root=warn")
+        .properties(properties)
+        .run();
+  }
+
+  static void insertProducts(ConfigurableApplicationContext context, int count) {
+    context.getBean(JdbcTemplate.class).update(
+        "insert into product (id, name, price, stock, version) "
+            + "select x, 'product-' || x, mod(x, 10000) + 1, mod(x, 500), 0 from system_range(1, ?)",
+        count);
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.store.benchmark;
+
+import com.example.store.StoreApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of GET /products with 64 concurrent clients under the default logging setup (synchronous console
+ * and file appenders at debug) and under the prod profile (async JSON console at info). Caching is off, so
+ * every request reaches the database and the statements it logs. The log levels are left to logback-spring.xml.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+public class LoggingOverheadBenchmark {
+
+  private static final int PRODUCTS = 10_000;
+  private static final int PAGE_SIZE = 20;
+
+  @Param({"default", "prod"})
+  private String profile;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient httpClient;
+  private String baseUrl;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context = new SpringApplicationBuilder(StoreApplication.class)
+        .profiles(profile)
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:logging-benchmark;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.cache.type=none")
+        .run();
+    BenchmarkApplication.insertProducts(context, PRODUCTS);
+    httpClient = HttpClient.newHttpClient();
+    baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products";
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    httpClient.close();
+    context.close();
+  }
+
+  @Benchmark
+  public int getProducts() throws IOException, InterruptedException {
+    int page = ThreadLocalRandom.current().nextInt(PRODUCTS / PAGE_SIZE);
+    HttpRequest request = HttpRequest.newBuilder(
+        URI.create(baseUrl + "?page=" + page + "&size=" + PAGE_SIZE)).build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.store.benchmark;
+
+import com.example.store.cache.PageableCacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageableCacheKeyBenchmark {
+
+  private Pageable pageable;
+  private PageableCacheKey cacheKey;
+
+  @Setup
+  public void setup() {
+    pageable = PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "price"));
+    cacheKey = PageableCacheKey.of(pageable);
+  }
+
+  @Benchmark
+  public PageableCacheKey of() {
+    return PageableCacheKey.of(pageable);
+  }
+
+  @Benchmark
+  public int hashCodeOfExistingKey() {
+    return cacheKey.hashCode();
+  }
+
+  @Benchmark
+  public int ofAndHashCode() {
+    return PageableCacheKey.of(pageable).hashCode();
+  }
+}
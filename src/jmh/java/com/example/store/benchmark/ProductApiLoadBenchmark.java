@@ -0,0 +1,138 @@
+package com.example.store.benchmark;
+
+import com.example.store.StoreApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives 400 concurrent clients against GET /products/{name} while every database call is slowed down by
+ * a fixed latency, comparing the platform-thread Tomcat pool with the virtual-threads profile. Both modes run
+ * with the same connection pool size, since every checkout pays the injected latency and the pool would
+ * otherwise dominate the comparison. SampleTime mode records the latency distribution, so p99 is part of the
+ * JSON results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class ProductApiLoadBenchmark {
+
+  private static final int PRODUCTS = 10_000;
+
+  @Param({"false", "true"})
+  private boolean virtualThreads;
+
+  @Param({"20"})
+  private long databaseLatencyMillis;
+
+  // the virtual-threads profile sizes the pool to 50, so that is the default for both modes
+  @Param({"50"})
+  private int connectionPoolSize;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient httpClient;
+  private String baseUrl;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context = new SpringApplicationBuilder(StoreApplication.class, DatabaseLatency.class)
+        .profiles(virtualThreads ? new String[] {"virtual-threads"} : new String[0])
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:load-benchmark;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.cache.type=none",
+            "store.benchmark.database-latency=" + databaseLatencyMillis,
+            "logging.level.root=warn")
+        // builder properties are defaults that the profile's own pool size would override, arguments are not
+        .run("--spring.datasource.hikari.maximum-pool-size=" + connectionPoolSize);
+    BenchmarkApplication.insertProducts(context, PRODUCTS);
+    httpClient = HttpClient.newHttpClient();
+    baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products/";
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    httpClient.close();
+    context.close();
+  }
+
+  @Benchmark
+  public int getProduct() throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(
+        URI.create(baseUrl + "product-" + ThreadLocalRandom.current().nextInt(1, PRODUCTS + 1))).build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  // registered as a plain source class rather than @Configuration so component scanning never picks it up
+  public static class DatabaseLatency {
+
+    @Bean
+    public static BeanPostProcessor databaseLatencyPostProcessor(Environment environment) {
+      long latencyMillis = environment.getProperty("store.benchmark.database-latency", Long.class, 0L);
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (bean instanceof DataSource dataSource && latencyMillis > 0) {
+            return new SlowDataSource(dataSource, latencyMillis);
+          }
+          return bean;
+        }
+      };
+    }
+  }
+
+  private static class SlowDataSource extends DelegatingDataSource {
+
+    private final long latencyMillis;
+
+    SlowDataSource(DataSource targetDataSource, long latencyMillis) {
+      super(targetDataSource);
+      this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      Connection connection = super.getConnection();
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return connection;
+    }
+  }
+}
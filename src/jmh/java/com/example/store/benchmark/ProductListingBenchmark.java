@@ -0,0 +1,100 @@
+package com.example.store.benchmark;
+
+import com.example.store.StoreApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the whole catalog sorted by price with 64 concurrent clients, either page by page through GET /products
+ * or as one NDJSON stream from GET /products/_stream, on platform threads and on virtual threads. The stream
+ * client reads in small chunks, so the server only advances its database cursor as fast as the client consumes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+public class ProductListingBenchmark {
+
+  private static final int PRODUCTS = 20_000;
+  private static final int PAGE_SIZE = 500;
+
+  @Param({"false", "true"})
+  private boolean virtualThreads;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient httpClient;
+  private String baseUrl;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context = new SpringApplicationBuilder(StoreApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:listing-benchmark;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.datasource.hikari.maximum-pool-size=64",
+            "spring.cache.type=none",
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            "logging.level.root=warn")
+        .run();
+    BenchmarkApplication.insertProducts(context, PRODUCTS);
+    httpClient = HttpClient.newHttpClient();
+    baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products";
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    httpClient.close();
+    context.close();
+  }
+
+  @Benchmark
+  public long pages() throws IOException, InterruptedException {
+    long bytes = 0;
+    for (int page = 0; page * PAGE_SIZE < PRODUCTS; page++) {
+      HttpRequest request = HttpRequest.newBuilder(
+          URI.create(baseUrl + "?sort=price&size=" + PAGE_SIZE + "&page=" + page)).build();
+      bytes += httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+    return bytes;
+  }
+
+  @Benchmark
+  public long stream() throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/_stream?sort=price")).build();
+    long bytes = 0;
+    byte[] chunk = new byte[4096];
+    try (InputStream body = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+      for (int read = body.read(chunk); read >= 0; read = body.read(chunk)) {
+        bytes += read;
+      }
+    }
+    return bytes;
+  }
+}
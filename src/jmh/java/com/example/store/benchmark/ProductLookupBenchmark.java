@@ -0,0 +1,58 @@
+package com.example.store.benchmark;
+
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name lookups against the unique name index; latency should stay flat as the row count grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductLookupBenchmark {
+
+  // capped at one million rows, since the catalog lives in an in-memory H2 inside the fork's default heap
+  @Param({"10000", "100000", "1000000"})
+  private int rows;
+
+  private ConfigurableApplicationContext context;
+  private ProductRepository productRepository;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context = BenchmarkApplication.start("lookup-benchmark-" + rows);
+    BenchmarkApplication.insertProducts(context, rows);
+    productRepository = context.getBean(ProductRepository.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<Product> findByName() {
+    return productRepository.findByName("product-" + ThreadLocalRandom.current().nextInt(1, rows + 1));
+  }
+}
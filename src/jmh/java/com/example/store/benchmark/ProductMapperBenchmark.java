@@ -0,0 +1,46 @@
+package com.example.store.benchmark;
+
+import com.example.store.dto.ProductResponse;
+import com.example.store.mapper.ProductMapper;
+import com.example.store.model.Money;
+import com.example.store.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+  private ProductMapper productMapper;
+  private Product product;
+
+  @Setup
+  public void setup() {
+    productMapper = new ProductMapper();
+    product = new Product.ProductBuilder()
+        .id(42L)
+        .name("Banana")
+        .price(Money.ofCents(199))
+        .stock(100)
+        .build();
+  }
+
+  @Benchmark
+  public ProductResponse toProductResponse() {
+    return productMapper.toProductResponse(product);
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.store.benchmark;
+
+import com.example.store.dto.ProductPage;
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductPageSerializationBenchmark {
+
+  @Param({"10", "100"})
+  private int pageSize;
+
+  private ObjectMapper objectMapper;
+  private ProductPage page;
+
+  @Setup
+  public void setup() {
+    objectMapper = new ObjectMapper();
+    List<ProductResponse> content = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      content.add(new ProductResponse((long) i, "product-" + i, Money.ofCents(100 + i), i));
+    }
+    page = new ProductPage(content, 0, pageSize, 10_000, 10_000 / pageSize);
+  }
+
+  @Benchmark
+  public byte[] writeValueAsBytes() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page);
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.store.benchmark;
+
+import com.example.store.dto.ProductPage;
+import com.example.store.dto.ProductResponse;
+import com.example.store.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+  private static final int PRODUCTS = 10_000;
+
+  private ConfigurableApplicationContext context;
+  private ProductService productService;
+  private CacheManager cacheManager;
+  private Pageable pageable;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context = BenchmarkApplication.start("service-benchmark");
+    BenchmarkApplication.insertProducts(context, PRODUCTS);
+    productService = context.getBean(ProductService.class);
+    cacheManager = context.getBean(CacheManager.class);
+    pageable = PageRequest.of(10, 20, Sort.by("price"));
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    context.close();
+  }
+
+  @State(Scope.Thread)
+  public static class ColdCache {
+    @Setup(Level.Invocation)
+    public void clear(ProductServiceBenchmark benchmark) {
+      benchmark.cacheManager.getCache("page").clear();
+      benchmark.cacheManager.getCache("single").clear();
+    }
+  }
+
+  @Benchmark
+  public ProductPage getProductsCacheHit() {
+    return productService.getProducts(pageable);
+  }
+
+  @Benchmark
+  public ProductPage getProductsCacheMiss(ColdCache coldCache) {
+    return productService.getProducts(pageable);
+  }
+
+  @Benchmark
+  public ProductResponse getProductCacheHit() {
+    return productService.getProduct("product-5000");
+  }
+
+  @Benchmark
+  public ProductResponse getProductCacheMiss(ColdCache coldCache) {
+    return productService.getProduct("product-5000");
+  }
+}
@@ -3,10 +3,12 @@ package com.example.store;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
-@EnableCaching
+// caching wraps the transaction, so a cache hit neither opens a transaction nor picks a data source
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @EnableTransactionManagement
 public class StoreApplication {
 
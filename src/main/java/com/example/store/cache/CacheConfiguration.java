@@ -0,0 +1,112 @@
+package com.example.store.cache;
+
+import com.example.store.datasource.ReplicaRoutingProperties;
+import com.example.store.dto.ProductPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties(StoreCacheProperties.class)
+public class CacheConfiguration {
+
+  public static final String SINGLE_CACHE = "single";
+  public static final String PAGE_CACHE = "page";
+
+  private static final List<String> DEFAULT_CACHES = List.of(SINGLE_CACHE, PAGE_CACHE);
+
+  @Bean
+  public CacheManagerCustomizer<CaffeineCacheManager> caffeineCacheManagerCustomizer(StoreCacheProperties properties) {
+    return cacheManager -> {
+      Set<String> cacheNames = new LinkedHashSet<>(DEFAULT_CACHES);
+      cacheNames.addAll(properties.getSpecs().keySet());
+      for (String cacheName : cacheNames) {
+        cacheManager.registerCustomCache(cacheName, buildCache(properties.getSpec(cacheName)));
+      }
+    };
+  }
+
+  // single-flight sits outermost, so a coalesced load also reads and fills the shared tier only once;
+  // with replicas, its evictions are repeated after the sticky window, once the replicas have caught up
+  @Bean
+  public static BeanPostProcessor singleFlightCacheManagerPostProcessor(ObjectProvider<StoreCacheProperties> properties,
+      ObjectProvider<SharedCacheBackend> sharedCacheBackend, ObjectProvider<CacheInvalidationBus> invalidationBus,
+      ObjectProvider<ReplicaRoutingProperties> routingProperties) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CacheManager cacheManager) || bean instanceof SingleFlightCacheManager) {
+          return bean;
+        }
+        StoreCacheProperties cacheProperties = properties.getObject();
+        CacheManager target = cacheManager;
+        if (cacheProperties.getTwoTier().isEnabled()) {
+          target = new TwoTierCacheManager(cacheManager, sharedCacheBackend.getObject(), invalidationBus.getObject(),
+              cacheProperties.getTwoTier());
+        }
+        ReplicaRoutingProperties routing = routingProperties.getIfAvailable();
+        return new SingleFlightCacheManager(target, cacheProperties, Executors.newVirtualThreadPerTaskExecutor(),
+            routing == null ? null : routing.getStickyWindow());
+      }
+    };
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "store.cache.two-tier.enabled", havingValue = "true")
+  @ConditionalOnMissingBean
+  public SharedCacheBackend sharedCacheBackend(StoreCacheProperties properties) {
+    return new InMemorySharedCacheBackend(properties);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "store.cache.two-tier.enabled", havingValue = "true")
+  @ConditionalOnMissingBean
+  public CacheInvalidationBus cacheInvalidationBus() {
+    return new LocalCacheInvalidationBus();
+  }
+
+  @Bean
+  public SingleFlightCacheMeterBinderProvider singleFlightCacheMeterBinderProvider() {
+    return new SingleFlightCacheMeterBinderProvider();
+  }
+
+  static Cache<Object, Object> buildCache(StoreCacheProperties.Spec spec) {
+    Caffeine<Object, Object> builder = Caffeine.newBuilder();
+    if (spec.getMaximumWeight() != null) {
+      builder.maximumWeight(spec.getMaximumWeight()).weigher(CacheConfiguration::weigh);
+    } else {
+      builder.maximumSize(spec.getMaximumSize());
+    }
+    if (spec.getExpireAfterWrite() != null) {
+      builder.expireAfterWrite(spec.getExpireAfterWrite());
+    }
+    if (spec.getExpireAfterAccess() != null) {
+      builder.expireAfterAccess(spec.getExpireAfterAccess());
+    }
+    if (spec.isRecordStats()) {
+      builder.recordStats();
+    }
+    return builder.build();
+  }
+
+  private static int weigh(Object key, Object value) {
+    if (value instanceof ProductPage page && page.getContent() != null) {
+      return page.getContent().size() + 1;
+    }
+    return 1;
+  }
+}
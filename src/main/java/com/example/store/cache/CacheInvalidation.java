@@ -0,0 +1,22 @@
+package com.example.store.cache;
+
+import com.example.store.dto.ProductResponse;
+
+/**
+ * Change broadcast to the other store instances. Each message names the instance that sent it, so the sender
+ * can skip its own messages.
+ */
+public sealed interface CacheInvalidation {
+
+  String origin();
+
+  record Evict(String origin, String cacheName, Object key, long version) implements CacheInvalidation {
+  }
+
+  record Clear(String origin, String cacheName, long version) implements CacheInvalidation {
+  }
+
+  // applied by every instance to its own page cache, which is never shared
+  record StockChanged(String origin, ProductResponse product) implements CacheInvalidation {
+  }
+}
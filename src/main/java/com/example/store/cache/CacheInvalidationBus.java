@@ -0,0 +1,13 @@
+package com.example.store.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache changes between store instances, e.g. over a message broker's pub/sub channel.
+ */
+public interface CacheInvalidationBus {
+
+  void publish(CacheInvalidation invalidation);
+
+  void subscribe(Consumer<CacheInvalidation> listener);
+}
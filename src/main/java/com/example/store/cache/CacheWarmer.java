@@ -0,0 +1,81 @@
+package com.example.store.cache;
+
+import com.example.store.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the "page" and "single" caches before the application reports readiness: runners complete before
+ * Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC}. Loads go through {@link ProductService}, so
+ * they populate the caches exactly as client requests would.
+ */
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+  private static final int LOOKUP_CHUNK = 500;
+
+  private final ProductService productService;
+  private final ProductAccessSketch productAccessSketch;
+  private final StoreCacheProperties.WarmUp properties;
+
+  public CacheWarmer(ProductService productService, ProductAccessSketch productAccessSketch,
+      StoreCacheProperties properties) {
+    this.productService = productService;
+    this.productAccessSketch = productAccessSketch;
+    this.properties = properties.getWarmUp();
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws InterruptedException {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    long started = System.nanoTime();
+    List<String> hotNames = productAccessSketch.hotNames(properties.getHotNames());
+    List<Future<?>> loads = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()),
+        Thread.ofPlatform().name("cache-warm-up-", 0).factory())) {
+      for (String sortField : ProductService.VALID_SORT_FIELDS) {
+        loads.add(executor.submit(() -> warmPages(sortField)));
+      }
+      // each chunk is resolved by one IN query that back-fills the "single" cache
+      for (int from = 0; from < hotNames.size(); from += LOOKUP_CHUNK) {
+        List<String> chunk = hotNames.subList(from, Math.min(hotNames.size(), from + LOOKUP_CHUNK));
+        loads.add(executor.submit(() -> productService.getProductsByName(chunk)));
+      }
+      int failed = 0;
+      for (Future<?> load : loads) {
+        try {
+          load.get();
+        } catch (ExecutionException ex) {
+          failed++;
+          log.warn("Cache warm-up task failed", ex.getCause());
+        }
+      }
+      log.info("Warmed caches with {} pages per sort field and {} hot products in {} ms ({} tasks failed)",
+          properties.getPages(), hotNames.size(), (System.nanoTime() - started) / 1_000_000, failed);
+    }
+  }
+
+  private void warmPages(String sortField) {
+    for (int page = 0; page < properties.getPages(); page++) {
+      PageRequest pageRequest = PageRequest.of(page, properties.getPageSize(), Sort.by(Sort.Direction.ASC, sortField));
+      if (!productService.getProducts(pageRequest).isHasNext()) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.store.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded stand-in for the shared tier, used when no external backend is configured and in tests. Entries
+ * expire and are bounded like the local caches of the same name.
+ */
+public class InMemorySharedCacheBackend implements SharedCacheBackend {
+
+  private final StoreCacheProperties properties;
+  private final AtomicLong versions = new AtomicLong();
+  private final Map<String, Cache<Object, Entry>> caches = new ConcurrentHashMap<>();
+
+  public InMemorySharedCacheBackend(StoreCacheProperties properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  public Entry get(String cacheName, Object key) {
+    return cache(cacheName).getIfPresent(key);
+  }
+
+  @Override
+  public long put(String cacheName, Object key, Object value) {
+    long version = versions.incrementAndGet();
+    cache(cacheName).put(key, new Entry(value, version));
+    return version;
+  }
+
+  @Override
+  public long evict(String cacheName, Object key) {
+    cache(cacheName).invalidate(key);
+    return versions.incrementAndGet();
+  }
+
+  @Override
+  public long clear(String cacheName) {
+    cache(cacheName).invalidateAll();
+    return versions.incrementAndGet();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Cache<Object, Entry> cache(String cacheName) {
+    return caches.computeIfAbsent(cacheName,
+        name -> (Cache<Object, Entry>) (Cache<?, ?>) CacheConfiguration.buildCache(properties.getSpec(name)));
+  }
+}
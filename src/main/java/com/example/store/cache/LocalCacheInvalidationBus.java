@@ -0,0 +1,24 @@
+package com.example.store.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers messages synchronously to the listeners in this JVM. It stands in for a real broker when a single
+ * instance runs, and in tests where several cache managers play the part of separate instances.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+  private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(CacheInvalidation invalidation) {
+    listeners.forEach(listener -> listener.accept(invalidation));
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidation> listener) {
+    listeners.add(listener);
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.store.cache;
+
+import com.example.store.datasource.ReplicaRoutingProperties;
+import com.example.store.dto.ProductPage;
+import com.example.store.dto.ProductResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Applies a single product change to the "page" cache: pages whose sort order or filter depends on the
+ * changed field are evicted, pages that merely contain the product are patched in place, everything else is kept.
+ * When an invalidation bus is configured the change is broadcast, and every other instance applies it to its
+ * own page cache. When reads go to replicas, the pages that were evicted or patched are dropped again after the
+ * sticky window, since they may have been reloaded from a replica that had not yet seen the change.
+ */
+@Component
+public class PageCacheInvalidator {
+
+  private final CacheManager cacheManager;
+  private final CacheInvalidationBus bus;
+  private final Executor evictAgainExecutor;
+  private final String origin = UUID.randomUUID().toString();
+
+  public PageCacheInvalidator(CacheManager cacheManager, ObjectProvider<CacheInvalidationBus> bus,
+      ObjectProvider<ReplicaRoutingProperties> routingProperties) {
+    this.cacheManager = cacheManager;
+    this.bus = bus.getIfAvailable();
+    ReplicaRoutingProperties routing = routingProperties.getIfAvailable();
+    this.evictAgainExecutor = routing == null ? null
+        : CompletableFuture.delayedExecutor(routing.getStickyWindow().toNanos(), TimeUnit.NANOSECONDS);
+    if (this.bus != null) {
+      this.bus.subscribe(this::onInvalidation);
+    }
+  }
+
+  public void onStockChanged(ProductResponse updated) {
+    applyStockChange(updated);
+    if (bus != null) {
+      bus.publish(new CacheInvalidation.StockChanged(origin, updated));
+    }
+  }
+
+  private void onInvalidation(CacheInvalidation invalidation) {
+    if (invalidation instanceof CacheInvalidation.StockChanged stockChanged && !origin.equals(stockChanged.origin())) {
+      applyStockChange(stockChanged.product());
+    }
+  }
+
+  // goes through the single-flight cache when there is one, so page loads still in flight are not written back
+  private void applyStockChange(ProductResponse updated) {
+    Cache pageCache = cacheManager.getCache(CacheConfiguration.PAGE_CACHE);
+    if (pageCache == null) {
+      return;
+    }
+    updateEntries(pageCache, (key, value) -> dependsOnStock(key) ? null : patch(value, updated));
+    if (evictAgainExecutor != null) {
+      // a reloaded page may hold an older stock than the patch had, so pages with the product are dropped, not patched
+      evictAgainExecutor.execute(() -> updateEntries(pageCache,
+          (key, value) -> dependsOnStock(key) || contains(value, updated.getId()) ? null : value));
+    }
+  }
+
+  private static void updateEntries(Cache pageCache, BiFunction<Object, Object, Object> remapping) {
+    if (pageCache instanceof SingleFlightCache singleFlightCache) {
+      singleFlightCache.updateEntries(remapping);
+    } else {
+      SingleFlightCache.updateEntries(pageCache, remapping);
+    }
+  }
+
+  private static boolean contains(Object value, Long id) {
+    return value instanceof ProductPage page && page.getContent() != null && indexOf(page.getContent(), id) >= 0;
+  }
+
+  private static boolean dependsOnStock(Object key) {
+    return !(key instanceof PageableCacheKey pageKey) || pageKey.isSortedBy("stock")
+        || pageKey.getFilter().dependsOnStock();
+  }
+
+  private static Object patch(Object value, ProductResponse updated) {
+    if (!(value instanceof ProductPage page) || page.getContent() == null) {
+      return value;
+    }
+    List<ProductResponse> content = page.getContent();
+    int index = indexOf(content, updated.getId());
+    if (index < 0) {
+      return value;
+    }
+    List<ProductResponse> patched = new ArrayList<>(content);
+    patched.set(index, updated);
+    return new ProductPage(patched, page.getPage(), page.getSize(), page.getTotalElements(),
+        page.getTotalPages(), page.isHasNext());
+  }
+
+  private static int indexOf(List<ProductResponse> content, Long id) {
+    for (int i = 0; i < content.size(); i++) {
+      ProductResponse product = content.get(i);
+      if (product != null && Objects.equals(product.getId(), id)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
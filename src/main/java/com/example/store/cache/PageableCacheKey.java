@@ -1,5 +1,6 @@
 package com.example.store.cache;
 
+import com.example.store.service.ProductFilter;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
@@ -10,15 +11,30 @@ public class PageableCacheKey {
   private final int pageNumber;
   private final int pageSize;
   private final Sort sort;
+  private final ProductFilter filter;
 
-  private PageableCacheKey(int pageNumber, int pageSize, Sort sort) {
+  private PageableCacheKey(int pageNumber, int pageSize, Sort sort, ProductFilter filter) {
     this.pageNumber = pageNumber;
     this.pageSize = pageSize;
     this.sort = sort;
+    this.filter = filter;
   }
 
   public static PageableCacheKey of(Pageable pageable) {
-    return new PageableCacheKey(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+    return of(pageable, ProductFilter.NONE);
+  }
+
+  public static PageableCacheKey of(Pageable pageable, ProductFilter filter) {
+    return new PageableCacheKey(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(),
+        filter == null ? ProductFilter.NONE : filter);
+  }
+
+  public boolean isSortedBy(String property) {
+    return sort.getOrderFor(property) != null;
+  }
+
+  public ProductFilter getFilter() {
+    return filter;
   }
 
   @Override
@@ -28,11 +44,12 @@ public class PageableCacheKey {
     PageableCacheKey that = (PageableCacheKey) o;
     return pageNumber == that.pageNumber &&
         pageSize == that.pageSize &&
-        Objects.equals(sort, that.sort);
+        Objects.equals(sort, that.sort) &&
+        Objects.equals(filter, that.filter);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(pageNumber, pageSize, sort);
+    return Objects.hash(pageNumber, pageSize, sort, filter);
   }
 }
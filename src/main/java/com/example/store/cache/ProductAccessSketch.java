@@ -0,0 +1,212 @@
+package com.example.store.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate access counts for product names: a count-min sketch estimates the frequency of any name in fixed
+ * memory and a bounded candidate map keeps the names with the highest estimates. The hottest names are written
+ * to a file on an interval and on shutdown, and read back on startup so the next deploy knows what to warm.
+ * Counts are halved after every persist, so old traffic fades out.
+ */
+@Component
+public class ProductAccessSketch implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductAccessSketch.class);
+  private static final int DEPTH = 4;
+  private static final int WIDTH = 1 << 16;
+  private static final int FILE_MAGIC = 0x484f5431;
+
+  private final StoreCacheProperties.WarmUp properties;
+  private final AtomicIntegerArray counters = new AtomicIntegerArray(DEPTH * WIDTH);
+  // the candidates may grow to twice the tracked size before the coldest are dropped back to it
+  private final Map<String, Integer> candidates = new ConcurrentHashMap<>();
+  private final ReentrantLock pruneLock = new ReentrantLock();
+  private final int tracked;
+  private volatile int admissionThreshold;
+  private ScheduledExecutorService scheduler;
+
+  public ProductAccessSketch(StoreCacheProperties properties) {
+    this.properties = properties.getWarmUp();
+    this.tracked = Math.max(1, this.properties.getHotNames());
+  }
+
+  public void record(String name) {
+    if (!properties.isEnabled() || name == null) {
+      return;
+    }
+    int hash = name.hashCode();
+    int estimate = Integer.MAX_VALUE;
+    for (int row = 0; row < DEPTH; row++) {
+      estimate = Math.min(estimate, counters.incrementAndGet(index(row, hash)));
+    }
+    if (estimate >= admissionThreshold || candidates.containsKey(name)) {
+      candidates.put(name, estimate);
+      if (candidates.size() > tracked * 2) {
+        prune();
+      }
+    }
+  }
+
+  public int estimate(String name) {
+    int hash = name.hashCode();
+    int estimate = Integer.MAX_VALUE;
+    for (int row = 0; row < DEPTH; row++) {
+      estimate = Math.min(estimate, counters.get(index(row, hash)));
+    }
+    return estimate;
+  }
+
+  // hottest first
+  public List<String> hotNames(int limit) {
+    return candidates.entrySet().stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+        .limit(limit)
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  private void prune() {
+    if (!pruneLock.tryLock()) {
+      return;
+    }
+    try {
+      List<Map.Entry<String, Integer>> coldest = candidates.entrySet().stream()
+          .sorted(Map.Entry.comparingByValue())
+          .limit(Math.max(0, candidates.size() - tracked))
+          .toList();
+      coldest.forEach(entry -> candidates.remove(entry.getKey(), entry.getValue()));
+      if (!coldest.isEmpty()) {
+        admissionThreshold = coldest.get(coldest.size() - 1).getValue();
+      }
+    } finally {
+      pruneLock.unlock();
+    }
+  }
+
+  // a different seed per row keeps collisions in one row independent of the others
+  private static int index(int row, int hash) {
+    int mixed = (hash ^ (0x9e3779b9 * (row + 1))) * 0x85ebca6b;
+    mixed ^= mixed >>> 15;
+    return row * WIDTH + (mixed & (WIDTH - 1));
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    load();
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("product-access-sketch").daemon().factory());
+    long intervalNanos = properties.getPersistInterval().toNanos();
+    scheduler.scheduleWithFixedDelay(this::persistQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  // persisted names are replayed with their estimate, so they rank as before until live traffic overtakes them
+  void load() {
+    Path path = properties.getSketchPath();
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (input.readInt() != FILE_MAGIC) {
+        log.warn("Ignoring product access sketch {} with an unknown format", path);
+        return;
+      }
+      int count = input.readInt();
+      for (int i = 0; i < count; i++) {
+        String name = readName(input);
+        int estimate = input.readInt();
+        int hash = name.hashCode();
+        for (int row = 0; row < DEPTH; row++) {
+          counters.accumulateAndGet(index(row, hash), estimate, Math::max);
+        }
+        candidates.merge(name, estimate, Math::max);
+      }
+      log.info("Loaded {} hot product names from {}", count, path);
+    } catch (IOException ex) {
+      log.warn("Cannot read product access sketch {}", path, ex);
+    }
+  }
+
+  void persist() throws IOException {
+    Path path = properties.getSketchPath();
+    Path directory = path.toAbsolutePath().getParent();
+    if (directory != null) {
+      Files.createDirectories(directory);
+    }
+    List<Map.Entry<String, Integer>> hottest = candidates.entrySet().stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+        .limit(tracked)
+        .toList();
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      output.writeInt(FILE_MAGIC);
+      output.writeInt(hottest.size());
+      for (Map.Entry<String, Integer> entry : hottest) {
+        writeName(output, entry.getKey());
+        output.writeInt(entry.getValue());
+      }
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    decay();
+  }
+
+  private void persistQuietly() {
+    try {
+      persist();
+    } catch (IOException | RuntimeException ex) {
+      log.warn("Cannot persist product access sketch {}", properties.getSketchPath(), ex);
+    }
+  }
+
+  private void decay() {
+    for (int i = 0; i < counters.length(); i++) {
+      counters.updateAndGet(i, count -> count >>> 1);
+    }
+    candidates.replaceAll((name, estimate) -> estimate >>> 1);
+    candidates.values().removeIf(estimate -> estimate == 0);
+    admissionThreshold = admissionThreshold >>> 1;
+  }
+
+  private static void writeName(DataOutputStream output, String name) throws IOException {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readName(DataInputStream input) throws IOException {
+    return new String(input.readNBytes(input.readInt()), StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void destroy() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdownNow();
+    persistQuietly();
+  }
+}
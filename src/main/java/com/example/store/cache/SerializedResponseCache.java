@@ -0,0 +1,122 @@
+package com.example.store.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded JSON, and optionally its gzip form, for product and page responses. Entries are keyed by the response's
+ * ETag, which changes whenever the content does. A product read from the snapshot or reloaded after a cache miss
+ * therefore reuses the bytes of an equal earlier response, and bytes for content that changed are no longer
+ * requested and age out.
+ */
+@Component
+public class SerializedResponseCache {
+
+  private final ObjectMapper objectMapper;
+  private final StoreCacheProperties.Serialized properties;
+  private final Cache<String, EncodedBody> encoded;
+
+  public SerializedResponseCache(ObjectMapper objectMapper, StoreCacheProperties properties) {
+    this.objectMapper = objectMapper;
+    this.properties = properties.getSerialized();
+    this.encoded = Caffeine.newBuilder()
+        .maximumWeight(this.properties.getMaximumSize().toBytes())
+        .weigher((String eTag, EncodedBody body) -> body.weight())
+        .build();
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  // a strong ETag has to differ between content codings, so the gzip form gets its own tag
+  public ResponseEntity<byte[]> toResponse(ResponseEntity.BodyBuilder response, String eTag, Object value,
+      String acceptEncoding) {
+    EncodedBody body = encoded.get(eTag, key -> encode(value));
+    response.contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT_ENCODING);
+    if (body.gzip() != null && acceptsGzip(acceptEncoding)) {
+      return response.eTag(eTag + "-gzip").header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+    }
+    return response.eTag(eTag).body(body.json());
+  }
+
+  private EncodedBody encode(Object value) {
+    byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(value);
+    } catch (JsonProcessingException ex) {
+      throw new UncheckedIOException("Cannot encode " + value.getClass().getSimpleName(), ex);
+    }
+    if (!properties.isGzip() || json.length < properties.getGzipMinSize().toBytes()) {
+      return new EncodedBody(json, null);
+    }
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 32);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(json);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot compress " + value.getClass().getSimpleName(), ex);
+    }
+    return new EncodedBody(json, compressed.toByteArray());
+  }
+
+  // the tag of whichever coding If-None-Match names, or null when it names neither; which coding a response
+  // gets depends on the size of the encoded body, so this lets a 304 be sent without encoding anything
+  public static String heldETag(String eTag, String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return null;
+    }
+    String gzipETag = eTag + "-gzip";
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*")) {
+        return eTag;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+        tag = tag.substring(1, tag.length() - 1);
+      }
+      if (tag.equals(eTag) || tag.equals(gzipETag)) {
+        return tag;
+      }
+    }
+    return null;
+  }
+
+  // "gzip" or "*" without q=0
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parameters = coding.split(";");
+      String name = parameters[0].trim();
+      if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+        continue;
+      }
+      if (parameters.length < 2 || !parameters[1].trim().matches("[qQ]\\s*=\\s*0(\\.0{0,3})?")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private record EncodedBody(byte[] json, byte[] gzip) {
+
+    int weight() {
+      return json.length + (gzip == null ? 0 : gzip.length);
+    }
+  }
+}
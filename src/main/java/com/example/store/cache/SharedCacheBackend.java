@@ -0,0 +1,20 @@
+package com.example.store.cache;
+
+/**
+ * Out-of-process cache tier shared by all store instances. Every write is stamped with a version from a
+ * single monotonic sequence, so instances can tell which of two changes to the same key happened last.
+ */
+public interface SharedCacheBackend {
+
+  // null when the key is not present
+  Entry get(String cacheName, Object key);
+
+  long put(String cacheName, Object key, Object value);
+
+  long evict(String cacheName, Object key);
+
+  long clear(String cacheName);
+
+  record Entry(Object value, long version) {
+  }
+}
@@ -0,0 +1,255 @@
+package com.example.store.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Cache decorator that lets only one caller load a missing key while concurrent callers for the same key
+ * wait on its future. Loads run on the caller's thread without holding any monitor, so virtual threads
+ * are never pinned. When a refresh interval is set, a hit on an entry older than the interval reloads it in
+ * the background and keeps serving the current value, so hot keys are refreshed before they expire. When reads go
+ * to replicas, every eviction is repeated once the replication lag has passed, since a miss in between may have
+ * been refilled from a replica that had not yet seen the write.
+ */
+public class SingleFlightCache implements Cache {
+
+  private final Cache delegate;
+  private final long refreshAfterNanos;
+  private final Executor refreshExecutor;
+  private final Executor evictAgainExecutor;
+  private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  public SingleFlightCache(Cache delegate, long refreshAfterNanos, Executor refreshExecutor) {
+    this(delegate, refreshAfterNanos, refreshExecutor, null);
+  }
+
+  public SingleFlightCache(Cache delegate, long refreshAfterNanos, Executor refreshExecutor,
+      Executor evictAgainExecutor) {
+    this.delegate = delegate;
+    this.refreshAfterNanos = refreshAfterNanos;
+    this.refreshExecutor = refreshExecutor;
+    this.evictAgainExecutor = evictAgainExecutor;
+  }
+
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return delegate.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return delegate.get(key);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return delegate.get(key, type);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper hit = delegate.get(key);
+    if (hit != null) {
+      refreshIfStale(key, valueLoader);
+      return (T) hit.get();
+    }
+
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+    if (existing != null) {
+      return (T) await(existing);
+    }
+    try {
+      ValueWrapper loadedMeanwhile = delegate.get(key);
+      Object value = loadedMeanwhile != null ? loadedMeanwhile.get() : load(key, valueLoader, load);
+      load.complete(value);
+      return (T) value;
+    } catch (RuntimeException ex) {
+      load.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, load);
+    }
+  }
+
+  // a load that was overtaken by an evict or clear of its key still answers its waiters but is not written back;
+  // the in-flight entry is the load's token, so it is only released after the put, and a load that finds it gone
+  // undoes the put, whether the eviction came before or during it
+  private Object load(Object key, Callable<?> valueLoader, CompletableFuture<Object> future) {
+    Object value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception ex) {
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+    if (inFlight.get(key) != future) {
+      return value;
+    }
+    delegate.put(key, value);
+    if (!inFlight.remove(key, future)) {
+      delegate.evict(key);
+    }
+    return value;
+  }
+
+  private static Object await(CompletableFuture<Object> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  private void refreshIfStale(Object key, Callable<?> valueLoader) {
+    if (refreshAfterNanos <= 0 || ageOf(key) < refreshAfterNanos) {
+      return;
+    }
+    CompletableFuture<Object> refresh = new CompletableFuture<>();
+    if (inFlight.putIfAbsent(key, refresh) != null) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          refresh.complete(load(key, valueLoader, refresh));
+        } catch (RuntimeException ex) {
+          // the current value stays in place until it expires
+          refresh.completeExceptionally(ex);
+        } finally {
+          inFlight.remove(key, refresh);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      inFlight.remove(key, refresh);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private long ageOf(Object key) {
+    if (delegate.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+      OptionalLong age = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).policy()
+          .expireAfterWrite()
+          .map(expiration -> expiration.ageOf(key, TimeUnit.NANOSECONDS))
+          .orElse(OptionalLong.empty());
+      return age.orElse(0);
+    }
+    return 0;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    delegate.put(key, value);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return delegate.putIfAbsent(key, value);
+  }
+
+  @Override
+  public void evict(Object key) {
+    evictNow(key);
+    evictAgain(() -> evictNow(key));
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    inFlight.remove(key);
+    boolean present = delegate.evictIfPresent(key);
+    evictAgain(() -> evictNow(key));
+    return present;
+  }
+
+  @Override
+  public void clear() {
+    clearNow();
+    evictAgain(this::clearNow);
+  }
+
+  @Override
+  public boolean invalidate() {
+    inFlight.clear();
+    boolean present = delegate.invalidate();
+    evictAgain(this::clearNow);
+    return present;
+  }
+
+  /**
+   * Remaps every cached entry in place, a null result removing it. Loads in flight may have read the data from
+   * before the change, so they still answer their callers but none of them is written back.
+   */
+  public void updateEntries(BiFunction<Object, Object, Object> remapping) {
+    inFlight.clear();
+    updateEntries(delegate, remapping);
+  }
+
+  // caches without a concurrent map view cannot be remapped and are cleared instead
+  static void updateEntries(Cache cache, BiFunction<Object, Object, Object> remapping) {
+    ConcurrentMap<Object, Object> entries = asMap(cache);
+    if (entries == null) {
+      cache.clear();
+      return;
+    }
+    for (Object key : List.copyOf(entries.keySet())) {
+      entries.computeIfPresent(key, remapping);
+    }
+  }
+
+  // the in-flight entry goes first, so a load finishing now finds its token gone and drops its write-back
+  private void evictNow(Object key) {
+    inFlight.remove(key);
+    delegate.evict(key);
+  }
+
+  private void clearNow() {
+    inFlight.clear();
+    delegate.clear();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ConcurrentMap<Object, Object> asMap(Cache cache) {
+    Object nativeCache = cache.getNativeCache();
+    if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+      return (ConcurrentMap<Object, Object>) caffeineCache.asMap();
+    }
+    if (nativeCache instanceof ConcurrentMap<?, ?> concurrentMap) {
+      return (ConcurrentMap<Object, Object>) concurrentMap;
+    }
+    return null;
+  }
+
+  private void evictAgain(Runnable eviction) {
+    if (evictAgainExecutor == null) {
+      return;
+    }
+    try {
+      evictAgainExecutor.execute(eviction);
+    } catch (RejectedExecutionException ex) {
+      // shutting down, nothing is served from this cache anymore
+    }
+  }
+}
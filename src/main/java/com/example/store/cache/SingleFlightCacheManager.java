@@ -0,0 +1,70 @@
+package com.example.store.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class SingleFlightCacheManager implements CacheManager, DisposableBean {
+
+  private final CacheManager delegate;
+  private final StoreCacheProperties properties;
+  private final Executor refreshExecutor;
+  private final Executor evictAgainExecutor;
+  private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public SingleFlightCacheManager(CacheManager delegate, StoreCacheProperties properties, Executor refreshExecutor) {
+    this(delegate, properties, refreshExecutor, null);
+  }
+
+  // evictions are repeated after evictAgainAfter when set, which should cover the replication lag
+  public SingleFlightCacheManager(CacheManager delegate, StoreCacheProperties properties, Executor refreshExecutor,
+      Duration evictAgainAfter) {
+    this.delegate = delegate;
+    this.properties = properties;
+    this.refreshExecutor = refreshExecutor;
+    this.evictAgainExecutor = evictAgainAfter == null ? null
+        : CompletableFuture.delayedExecutor(evictAgainAfter.toNanos(), TimeUnit.NANOSECONDS, refreshExecutor);
+  }
+
+  public CacheManager getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    Cache cache = caches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+    Cache target = delegate.getCache(name);
+    if (target == null) {
+      return null;
+    }
+    Duration refreshAfterWrite = properties.getSpec(name).getRefreshAfterWrite();
+    long refreshAfterNanos = refreshAfterWrite == null ? 0 : refreshAfterWrite.toNanos();
+    return caches.computeIfAbsent(name, key -> new SingleFlightCache(target, refreshAfterNanos, refreshExecutor,
+        evictAgainExecutor));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return delegate.getCacheNames();
+  }
+
+  // waits for running refreshes; evictions still scheduled to repeat are dropped with the caches
+  @Override
+  public void destroy() {
+    if (refreshExecutor instanceof ExecutorService executorService) {
+      executorService.close();
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.store.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.ConcurrentMapCacheMetricsProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Binds the metrics of the local cache wrapped by {@link SingleFlightCache} and, when enabled, {@link TwoTierCache},
+ * which Boot's providers do not unwrap.
+ */
+public class SingleFlightCacheMeterBinderProvider implements CacheMeterBinderProvider<SingleFlightCache> {
+
+  private final CaffeineCacheMeterBinderProvider caffeineProvider = new CaffeineCacheMeterBinderProvider();
+  private final ConcurrentMapCacheMetricsProvider concurrentMapProvider = new ConcurrentMapCacheMetricsProvider();
+
+  @Override
+  public MeterBinder getMeterBinder(SingleFlightCache cache, Iterable<Tag> tags) {
+    Cache target = cache.getDelegate() instanceof TwoTierCache twoTierCache ? twoTierCache.getNear() : cache.getDelegate();
+    if (target instanceof CaffeineCache caffeineCache) {
+      return caffeineProvider.getMeterBinder(caffeineCache, tags);
+    }
+    if (target instanceof ConcurrentMapCache concurrentMapCache) {
+      return concurrentMapProvider.getMeterBinder(concurrentMapCache, tags);
+    }
+    return null;
+  }
+}
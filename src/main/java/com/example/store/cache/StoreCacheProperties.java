@@ -0,0 +1,277 @@
+package com.example.store.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "store.cache")
+public class StoreCacheProperties {
+
+  private Map<String, Spec> specs = new LinkedHashMap<>();
+
+  private WarmUp warmUp = new WarmUp();
+
+  private TwoTier twoTier = new TwoTier();
+
+  private Serialized serialized = new Serialized();
+
+  public Map<String, Spec> getSpecs() {
+    return specs;
+  }
+
+  public void setSpecs(Map<String, Spec> specs) {
+    this.specs = specs;
+  }
+
+  public WarmUp getWarmUp() {
+    return warmUp;
+  }
+
+  public void setWarmUp(WarmUp warmUp) {
+    this.warmUp = warmUp;
+  }
+
+  public TwoTier getTwoTier() {
+    return twoTier;
+  }
+
+  public void setTwoTier(TwoTier twoTier) {
+    this.twoTier = twoTier;
+  }
+
+  public Serialized getSerialized() {
+    return serialized;
+  }
+
+  public void setSerialized(Serialized serialized) {
+    this.serialized = serialized;
+  }
+
+  public Spec getSpec(String cacheName) {
+    return specs.getOrDefault(cacheName, new Spec());
+  }
+
+  public static class Spec {
+
+    private long maximumSize = 10_000;
+
+    // when set, takes precedence over maximumSize and bounds the cache by entry weight instead
+    private Long maximumWeight;
+
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    private Duration expireAfterAccess;
+
+    // entries read after this age are reloaded in the background; must be shorter than expireAfterWrite
+    private Duration refreshAfterWrite;
+
+    private boolean recordStats = true;
+
+    public long getMaximumSize() {
+      return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+    }
+
+    public Long getMaximumWeight() {
+      return maximumWeight;
+    }
+
+    public void setMaximumWeight(Long maximumWeight) {
+      this.maximumWeight = maximumWeight;
+    }
+
+    public Duration getExpireAfterWrite() {
+      return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+      this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getExpireAfterAccess() {
+      return expireAfterAccess;
+    }
+
+    public void setExpireAfterAccess(Duration expireAfterAccess) {
+      this.expireAfterAccess = expireAfterAccess;
+    }
+
+    public Duration getRefreshAfterWrite() {
+      return refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+      this.refreshAfterWrite = refreshAfterWrite;
+    }
+
+    public boolean isRecordStats() {
+      return recordStats;
+    }
+
+    public void setRecordStats(boolean recordStats) {
+      this.recordStats = recordStats;
+    }
+  }
+
+  public static class WarmUp {
+
+    private boolean enabled;
+
+    // first pages loaded for every sort field, with the controller's default page size
+    private int pages = 5;
+
+    private int pageSize = 10;
+
+    private int hotNames = 1000;
+
+    private int parallelism = 8;
+
+    private Path sketchPath = Path.of("data/product-access.bin");
+
+    private Duration persistInterval = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getPages() {
+      return pages;
+    }
+
+    public void setPages(int pages) {
+      this.pages = pages;
+    }
+
+    public int getPageSize() {
+      return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+      this.pageSize = pageSize;
+    }
+
+    public int getHotNames() {
+      return hotNames;
+    }
+
+    public void setHotNames(int hotNames) {
+      this.hotNames = hotNames;
+    }
+
+    public int getParallelism() {
+      return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+      this.parallelism = parallelism;
+    }
+
+    public Path getSketchPath() {
+      return sketchPath;
+    }
+
+    public void setSketchPath(Path sketchPath) {
+      this.sketchPath = sketchPath;
+    }
+
+    public Duration getPersistInterval() {
+      return persistInterval;
+    }
+
+    public void setPersistInterval(Duration persistInterval) {
+      this.persistInterval = persistInterval;
+    }
+  }
+
+  public static class TwoTier {
+
+    private boolean enabled;
+
+    // caches whose values live in the shared tier; the others stay local and only broadcast evictions
+    private List<String> sharedCaches = List.of("single");
+
+    // upper bound on how long a near entry is served without checking the shared tier
+    private Duration nearMaxAge = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public List<String> getSharedCaches() {
+      return sharedCaches;
+    }
+
+    public void setSharedCaches(List<String> sharedCaches) {
+      this.sharedCaches = sharedCaches;
+    }
+
+    public Duration getNearMaxAge() {
+      return nearMaxAge;
+    }
+
+    public void setNearMaxAge(Duration nearMaxAge) {
+      this.nearMaxAge = nearMaxAge;
+    }
+  }
+
+  public static class Serialized {
+
+    private boolean enabled;
+
+    private boolean gzip = true;
+
+    // smaller bodies are sent as they are, since gzip would barely shrink them
+    private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+
+    // bounds the encoded bytes kept next to the cached pages and products
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public boolean isGzip() {
+      return gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+      this.gzip = gzip;
+    }
+
+    public DataSize getGzipMinSize() {
+      return gzipMinSize;
+    }
+
+    public void setGzipMinSize(DataSize gzipMinSize) {
+      this.gzipMinSize = gzipMinSize;
+    }
+
+    public DataSize getMaximumSize() {
+      return maximumSize;
+    }
+
+    public void setMaximumSize(DataSize maximumSize) {
+      this.maximumSize = maximumSize;
+    }
+  }
+}
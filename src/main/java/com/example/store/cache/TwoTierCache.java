@@ -0,0 +1,146 @@
+package com.example.store.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Near cache in this process backed by a shared tier. Near entries remember the shared version they were
+ * read at. An eviction message only drops near entries older than itself, and a near entry older than the
+ * maximum near age is checked against the shared tier before it is served again. So even a lost message
+ * leaves stale reads bounded by that age. Without a shared backend the cache stays local, but evictions and
+ * clears are still broadcast to the other instances.
+ */
+public class TwoTierCache implements Cache {
+
+  private final Cache near;
+  private final SharedCacheBackend shared;
+  private final CacheInvalidationBus bus;
+  private final String origin;
+  private final long nearMaxAgeNanos;
+
+  public TwoTierCache(Cache near, SharedCacheBackend shared, CacheInvalidationBus bus, String origin,
+      long nearMaxAgeNanos) {
+    this.near = near;
+    this.shared = shared;
+    this.bus = bus;
+    this.origin = origin;
+    this.nearMaxAgeNanos = nearMaxAgeNanos;
+  }
+
+  public Cache getNear() {
+    return near;
+  }
+
+  @Override
+  public String getName() {
+    return near.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return near.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    if (shared == null) {
+      return near.get(key);
+    }
+    ValueWrapper nearHit = near.get(key);
+    if (nearHit != null && nearHit.get() instanceof NearEntry entry) {
+      if (System.nanoTime() - entry.readAt() < nearMaxAgeNanos) {
+        return new SimpleValueWrapper(entry.value());
+      }
+    }
+    SharedCacheBackend.Entry sharedHit = shared.get(getName(), key);
+    if (sharedHit == null) {
+      if (nearHit != null) {
+        near.evict(key);
+      }
+      return null;
+    }
+    near.put(key, new NearEntry(sharedHit.value(), sharedHit.version(), System.nanoTime()));
+    return new SimpleValueWrapper(sharedHit.value());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper hit = get(key);
+    Object value = hit == null ? null : hit.get();
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper hit = get(key);
+    if (hit != null) {
+      return (T) hit.get();
+    }
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception ex) {
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+    put(key, value);
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    if (shared == null) {
+      near.put(key, value);
+      return;
+    }
+    long version = shared.put(getName(), key, value);
+    near.put(key, new NearEntry(value, version, System.nanoTime()));
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = get(key);
+    if (existing == null) {
+      put(key, value);
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    long version = shared == null ? 0 : shared.evict(getName(), key);
+    near.evict(key);
+    bus.publish(new CacheInvalidation.Evict(origin, getName(), key, version));
+  }
+
+  @Override
+  public void clear() {
+    long version = shared == null ? 0 : shared.clear(getName());
+    near.clear();
+    bus.publish(new CacheInvalidation.Clear(origin, getName(), version));
+  }
+
+  // an eviction older than the near entry, e.g. delivered late, leaves the newer value in place
+  void onRemoteEvict(Object key, long version) {
+    ValueWrapper nearHit = near.get(key);
+    if (nearHit == null) {
+      return;
+    }
+    if (shared == null || !(nearHit.get() instanceof NearEntry entry) || entry.version() < version) {
+      near.evict(key);
+    }
+  }
+
+  void onRemoteClear() {
+    near.clear();
+  }
+
+  private record NearEntry(Object value, long version, long readAt) {
+  }
+}
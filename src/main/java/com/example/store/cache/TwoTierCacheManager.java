@@ -0,0 +1,80 @@
+package com.example.store.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class TwoTierCacheManager implements CacheManager {
+
+  private final CacheManager delegate;
+  private final SharedCacheBackend shared;
+  private final CacheInvalidationBus bus;
+  private final Set<String> sharedCaches;
+  private final long nearMaxAgeNanos;
+  private final String origin = UUID.randomUUID().toString();
+  private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+  public TwoTierCacheManager(CacheManager delegate, SharedCacheBackend shared, CacheInvalidationBus bus,
+      StoreCacheProperties.TwoTier properties) {
+    this.delegate = delegate;
+    this.shared = shared;
+    this.bus = bus;
+    this.sharedCaches = Set.copyOf(properties.getSharedCaches());
+    this.nearMaxAgeNanos = properties.getNearMaxAge().toNanos();
+    bus.subscribe(this::onInvalidation);
+  }
+
+  public CacheManager getDelegate() {
+    return delegate;
+  }
+
+  // identifies this instance in broadcast messages
+  public String getOrigin() {
+    return origin;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    TwoTierCache cache = caches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+    Cache near = delegate.getCache(name);
+    if (near == null) {
+      return null;
+    }
+    SharedCacheBackend backend = sharedCaches.contains(name) ? shared : null;
+    return caches.computeIfAbsent(name, key -> new TwoTierCache(near, backend, bus, origin, nearMaxAgeNanos));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return delegate.getCacheNames();
+  }
+
+  private void onInvalidation(CacheInvalidation invalidation) {
+    if (origin.equals(invalidation.origin())) {
+      return;
+    }
+    switch (invalidation) {
+      case CacheInvalidation.Evict evict -> {
+        if (getCache(evict.cacheName()) instanceof TwoTierCache cache) {
+          cache.onRemoteEvict(evict.key(), evict.version());
+        }
+      }
+      case CacheInvalidation.Clear clear -> {
+        if (getCache(clear.cacheName()) instanceof TwoTierCache cache) {
+          cache.onRemoteClear();
+        }
+      }
+      case CacheInvalidation.StockChanged stockChanged -> {
+        // handled by PageCacheInvalidator
+      }
+    }
+  }
+}
@@ -1,25 +1,73 @@
 package com.example.store.controller;
 
+import com.example.store.cache.ProductAccessSketch;
+import com.example.store.cache.SerializedResponseCache;
+import com.example.store.dto.BulkImportResult;
+import com.example.store.dto.ProductCursorPage;
+import com.example.store.dto.ProductLookup;
 import com.example.store.dto.ProductPage;
 import com.example.store.dto.ProductRequest;
 import com.example.store.dto.ProductResponse;
+import com.example.store.service.ProductExportFormat;
+import com.example.store.service.ProductExportService;
+import com.example.store.service.ProductFilter;
+import com.example.store.service.ProductImportService;
 import com.example.store.service.ProductService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
   private final ProductService productService;
+  private final ProductImportService productImportService;
+  private final ProductExportService productExportService;
+  private final ObjectMapper objectMapper;
+  private final ProductAccessSketch productAccessSketch;
+  private final SerializedResponseCache serializedResponseCache;
+  private final CacheControl productCacheControl;
+  private final CacheControl pageCacheControl;
 
-  public ProductController(ProductService productService) {
+  public ProductController(ProductService productService, ProductImportService productImportService,
+      ProductExportService productExportService, ObjectMapper objectMapper, ProductAccessSketch productAccessSketch,
+      SerializedResponseCache serializedResponseCache,
+      @Value("${store.http.product-max-age:0s}") Duration productMaxAge,
+      @Value("${store.http.page-max-age:0s}") Duration pageMaxAge) {
     this.productService = productService;
+    this.productImportService = productImportService;
+    this.productExportService = productExportService;
+    this.objectMapper = objectMapper;
+    this.productAccessSketch = productAccessSketch;
+    this.serializedResponseCache = serializedResponseCache;
+    this.productCacheControl = cacheControl(productMaxAge);
+    this.pageCacheControl = cacheControl(pageMaxAge);
+  }
+
+  // a zero max-age still lets clients and CDNs keep the body, but they revalidate it with If-None-Match each time
+  private static CacheControl cacheControl(Duration maxAge) {
+    CacheControl cacheControl = maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge);
+    return cacheControl.cachePublic();
   }
 
   @PostMapping
@@ -27,15 +75,123 @@ public class ProductController {
     return ResponseEntity.ok(productService.addProduct(request));
   }
 
+  // accepts a JSON array or NDJSON and parses it incrementally, so the payload is never held in memory
+  @PostMapping(value = "/_bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<BulkImportResult> addProducts(InputStream body) throws IOException {
+    try (MappingIterator<ProductRequest> requests = objectMapper.readerFor(ProductRequest.class).readValues(body)) {
+      return ResponseEntity.ok(productImportService.importProducts(requests));
+    }
+  }
+
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+      @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+    ProductExportFormat exportFormat = ProductExportFormat.from(format);
+    StreamingResponseBody body = outputStream -> productExportService.export(exportFormat, outputStream);
+    return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+  }
+
+  // same contract as the paged listing, but the whole sorted and filtered result in one NDJSON stream
+  @GetMapping(value = "/_stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamProducts(
+      @SortDefault(sort = "name", direction = Sort.Direction.ASC) Sort sort,
+      @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+      @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+      @RequestParam(value = "inStock", required = false) Boolean inStock,
+      @RequestParam(value = "minStock", required = false) Integer minStock) {
+    ProductService.validateSort(sort);
+    ProductFilter filter = ProductFilter.of(minPrice, maxPrice, inStock, minStock);
+    StreamingResponseBody body = outputStream -> productExportService.streamListing(sort, filter, outputStream);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  @PostMapping("/_mget")
+  public ResponseEntity<List<ProductLookup>> getProductsByName(@RequestBody List<String> names) {
+    List<ProductLookup> lookups = productService.getProductsByName(names);
+    names.forEach(productAccessSketch::record);
+    return ResponseEntity.ok(lookups);
+  }
+
+  // type-ahead and keyword search; without q the path falls through to the product named "search"
+  @GetMapping(value = "/search", params = "q")
+  public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam("q") String query,
+      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    return ResponseEntity.ok(productService.searchProducts(query, limit));
+  }
+
+  // a matching If-None-Match is answered with 304 before the body is serialized
   @GetMapping("/{name}")
-  public ResponseEntity<ProductResponse> getProduct(@PathVariable String name) {
-    return ResponseEntity.ok(productService.getProduct(name));
+  public ResponseEntity<?> getProduct(@PathVariable String name,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      WebRequest request) {
+    ProductResponse product = productService.getProduct(name);
+    productAccessSketch.record(name);
+    return cachedResponse(request, productCacheControl, productETag(product), product, acceptEncoding);
   }
 
   @GetMapping
-  public ResponseEntity<ProductPage> getProducts(
-      @PageableDefault(sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
-    return ResponseEntity.ok(productService.getProducts(pageable));
+  public ResponseEntity<?> getProducts(
+      @PageableDefault(sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+      @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+      @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+      @RequestParam(value = "inStock", required = false) Boolean inStock,
+      @RequestParam(value = "minStock", required = false) Integer minStock,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      WebRequest request) {
+    ProductFilter filter = ProductFilter.of(minPrice, maxPrice, inStock, minStock);
+    ProductPage page = productService.getProducts(pageable, filter);
+    return cachedResponse(request, pageCacheControl, pageETag(page), page, acceptEncoding);
+  }
+
+  // with the serialized cache enabled a cache hit writes the stored bytes and skips Jackson entirely; the
+  // If-None-Match check runs first, so a 304 never encodes the body
+  private ResponseEntity<?> cachedResponse(WebRequest request, CacheControl cacheControl, String eTag, Object body,
+      String acceptEncoding) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl);
+    if (!serializedResponseCache.isEnabled()) {
+      return response.eTag(eTag).body(body);
+    }
+    String heldETag = SerializedResponseCache.heldETag(eTag, request.getHeader(HttpHeaders.IF_NONE_MATCH));
+    if (heldETag != null && request.checkNotModified(heldETag)) {
+      return response.eTag(heldETag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+    }
+    return serializedResponseCache.toResponse(response, eTag, body, acceptEncoding);
+  }
+
+  // stock is part of the tag because buffered stock updates reach the version column only when flushed
+  static String productETag(ProductResponse product) {
+    return product.getId() + "-" + product.getVersion() + "-" + product.getStock();
+  }
+
+  // folds the page position and totals and the tag of every product into 64 bits, never hashing the payload
+  static String pageETag(ProductPage page) {
+    long hash = mix(0, page.getPage());
+    hash = mix(hash, page.getSize());
+    hash = mix(hash, page.getTotalElements());
+    hash = mix(hash, page.isHasNext() ? 1 : 0);
+    for (ProductResponse product : page.getContent()) {
+      hash = mix(hash, product.getId() == null ? 0 : product.getId());
+      hash = mix(hash, product.getVersion());
+      hash = mix(hash, product.getStock());
+    }
+    return "page-" + Long.toHexString(hash);
+  }
+
+  private static long mix(long hash, long value) {
+    hash = (hash ^ value) * 0x9e3779b97f4a7c15L;
+    return hash ^ (hash >>> 32);
+  }
+
+  @GetMapping(params = "after")
+  public ResponseEntity<ProductCursorPage> getProductsAfter(@RequestParam("after") String after,
+      @RequestParam(value = "size", defaultValue = "10") int size,
+      @SortDefault(sort = "name", direction = Sort.Direction.ASC) Sort sort,
+      @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+      @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+      @RequestParam(value = "inStock", required = false) Boolean inStock,
+      @RequestParam(value = "minStock", required = false) Integer minStock) {
+    ProductFilter filter = ProductFilter.of(minPrice, maxPrice, inStock, minStock);
+    return ResponseEntity.ok(productService.getProductsAfter(after, size, sort, filter));
   }
 
   @PatchMapping("/{name}/stock")
@@ -43,4 +199,9 @@ public class ProductController {
     ProductResponse updatedProduct = productService.updateStock(name, stock);
     return ResponseEntity.ok(updatedProduct);
   }
+
+  @PatchMapping("/{name}/stock/delta")
+  public ResponseEntity<ProductResponse> adjustStock(@PathVariable("name") String name, @RequestParam("delta") int delta) {
+    return ResponseEntity.ok(productService.adjustStock(name, delta));
+  }
 }
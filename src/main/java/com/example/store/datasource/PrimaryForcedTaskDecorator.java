@@ -0,0 +1,26 @@
+package com.example.store.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Carries the submitting thread's primary-forced flag over to the task, so the async part of a request, such as a
+ * {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody}, reads from the same side as
+ * the request thread did. Spring Boot applies it to the application task executor that Spring MVC runs async
+ * requests on.
+ */
+public class PrimaryForcedTaskDecorator implements TaskDecorator {
+
+  @Override
+  public Runnable decorate(Runnable runnable) {
+    boolean primaryForced = ReplicaRoutingDataSource.isPrimaryForced();
+    return () -> {
+      boolean previous = ReplicaRoutingDataSource.isPrimaryForced();
+      ReplicaRoutingDataSource.setPrimaryForced(primaryForced);
+      try {
+        runnable.run();
+      } finally {
+        ReplicaRoutingDataSource.setPrimaryForced(previous);
+      }
+    };
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.store.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Read-your-writes for clients of any instance: a request that may write hands the client a cookie holding the
+ * end of the sticky window, and read-only requests carrying an unexpired cookie are served from the primary.
+ * The window should cover the replication lag.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  static final String COOKIE_NAME = "store-primary-until";
+
+  private final Duration stickyWindow;
+  private final Clock clock;
+
+  public ReadYourWritesFilter(Duration stickyWindow, Clock clock) {
+    this.stickyWindow = stickyWindow;
+    this.clock = clock;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long now = clock.millis();
+    if (isWrite(request)) {
+      // set before the chain runs, since the body may commit the response
+      Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + stickyWindow.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, stickyWindow.toSeconds() + 1));
+      response.addCookie(cookie);
+    }
+    ReplicaRoutingDataSource.setPrimaryForced(isWrite(request) || stickyUntil(request) > now);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReplicaRoutingDataSource.setPrimaryForced(false);
+    }
+  }
+
+  private static boolean isWrite(HttpServletRequest request) {
+    String method = request.getMethod();
+    return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+  }
+
+  private static long stickyUntil(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return 0;
+    }
+    for (Cookie cookie : cookies) {
+      if (COOKIE_NAME.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException ex) {
+          return 0;
+        }
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.store.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with a primary built from {@code spring.datasource.*} and the
+ * replicas listed under {@code store.datasource.routing.replicas}. Schema management and every transaction that
+ * is not read-only keep using the primary.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "store.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfiguration {
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+      ReplicaRoutingProperties properties) {
+    DataSource primary = dataSourceProperties.initializeDataSourceBuilder().build();
+    List<DataSource> replicas = properties.getReplicas().stream()
+        .map(replica -> (DataSource) DataSourceBuilder.create()
+            .driverClassName(dataSourceProperties.determineDriverClassName())
+            .url(replica.getUrl())
+            .username(replica.getUsername())
+            .password(replica.getPassword())
+            .build())
+        .toList();
+    return new ReplicaRoutingDataSource(primary, replicas);
+  }
+
+  // connections are fetched on the first statement, after the transaction has been marked read-only
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+
+  @Bean
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRoutingProperties properties) {
+    FilterRegistrationBean<ReadYourWritesFilter> registration =
+        new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.getStickyWindow(), Clock.systemUTC()));
+    registration.addUrlPatterns("/products", "/products/*");
+    return registration;
+  }
+
+  // streamed responses are written on the MVC async executor, which would otherwise lose the filter's decision
+  @Bean
+  public PrimaryForcedTaskDecorator primaryForcedTaskDecorator() {
+    return new PrimaryForcedTaskDecorator();
+  }
+}
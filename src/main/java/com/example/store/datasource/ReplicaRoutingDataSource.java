@@ -0,0 +1,73 @@
+package com.example.store.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to the replicas in turn and everything else to the primary. The
+ * read-only flag is only known once the transaction has started, so this data source has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}. A thread that must see its own
+ * recent writes can force the primary for read-only transactions as well.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+  static final String PRIMARY = "primary";
+  private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+  private final List<DataSource> targets;
+  private final int replicaCount;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+    Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targetDataSources.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(primary);
+    List<DataSource> targets = new ArrayList<>(replicas.size() + 1);
+    targets.add(primary);
+    targets.addAll(replicas);
+    this.targets = List.copyOf(targets);
+    this.replicaCount = replicas.size();
+  }
+
+  public static void setPrimaryForced(boolean forced) {
+    if (forced) {
+      PRIMARY_FORCED.set(Boolean.TRUE);
+    } else {
+      PRIMARY_FORCED.remove();
+    }
+  }
+
+  public static boolean isPrimaryForced() {
+    return PRIMARY_FORCED.get() != null;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicaCount == 0 || isPrimaryForced() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return PRIMARY;
+    }
+    return Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (DataSource target : targets) {
+      if (target instanceof Closeable closeable) {
+        closeable.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.store.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "store.datasource.routing")
+public class ReplicaRoutingProperties {
+
+  private boolean enabled;
+
+  private List<Replica> replicas = new ArrayList<>();
+
+  // how long a client reads from the primary after a write; should cover the replication lag
+  private Duration stickyWindow = Duration.ofSeconds(2);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<Replica> getReplicas() {
+    return replicas;
+  }
+
+  public void setReplicas(List<Replica> replicas) {
+    this.replicas = replicas;
+  }
+
+  public Duration getStickyWindow() {
+    return stickyWindow;
+  }
+
+  public void setStickyWindow(Duration stickyWindow) {
+    this.stickyWindow = stickyWindow;
+  }
+
+  public static class Replica {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.store.dto;
+
+public class BulkImportError {
+
+  private final int index;
+
+  private final String name;
+
+  private final String message;
+
+  public BulkImportError(int index, String name, String message) {
+    this.index = index;
+    this.name = name;
+    this.message = message;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return "BulkImportError{" + "index=" + index + ", name='" + name + '\'' + ", message='" + message + '\'' + '}';
+  }
+}
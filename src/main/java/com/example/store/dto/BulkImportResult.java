@@ -0,0 +1,30 @@
+package com.example.store.dto;
+
+import java.util.List;
+
+public class BulkImportResult {
+
+  private final int received;
+
+  private final int imported;
+
+  private final List<BulkImportError> errors;
+
+  public BulkImportResult(int received, int imported, List<BulkImportError> errors) {
+    this.received = received;
+    this.imported = imported;
+    this.errors = errors;
+  }
+
+  public int getReceived() {
+    return received;
+  }
+
+  public int getImported() {
+    return imported;
+  }
+
+  public List<BulkImportError> getErrors() {
+    return errors;
+  }
+}
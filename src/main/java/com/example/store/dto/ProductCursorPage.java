@@ -0,0 +1,46 @@
+package com.example.store.dto;
+
+import java.util.List;
+
+public class ProductCursorPage {
+
+  private List<ProductResponse> content;
+
+  private int size;
+
+  private String nextCursor;
+
+  public ProductCursorPage(List<ProductResponse> content, int size, String nextCursor) {
+    this.content = content;
+    this.size = size;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<ProductResponse> getContent() {
+    return content;
+  }
+
+  public void setContent(List<ProductResponse> content) {
+    this.content = content;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  public boolean isHasNext() {
+    return nextCursor != null;
+  }
+}
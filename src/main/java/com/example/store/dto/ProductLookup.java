@@ -0,0 +1,33 @@
+package com.example.store.dto;
+
+public class ProductLookup {
+
+  private final String name;
+
+  private final boolean found;
+
+  private final ProductResponse product;
+
+  public ProductLookup(String name, ProductResponse product) {
+    this.name = name;
+    this.found = product != null;
+    this.product = product;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isFound() {
+    return found;
+  }
+
+  public ProductResponse getProduct() {
+    return product;
+  }
+
+  @Override
+  public String toString() {
+    return "ProductLookup{" + "name='" + name + '\'' + ", found=" + found + ", product=" + product + '}';
+  }
+}
@@ -14,13 +14,21 @@ public class ProductPage {
 
   private long totalPages;
 
+  private boolean hasNext;
+
   public ProductPage(List<ProductResponse> content, int page, int size,
       long totalElements, long totalPages) {
+    this(content, page, size, totalElements, totalPages, page + 1L < totalPages);
+  }
+
+  public ProductPage(List<ProductResponse> content, int page, int size,
+      long totalElements, long totalPages, boolean hasNext) {
     this.content = content;
     this.page = page;
     this.size = size;
     this.totalElements = totalElements;
     this.totalPages = totalPages;
+    this.hasNext = hasNext;
   }
 
   public List<ProductResponse> getContent() {
@@ -62,4 +70,12 @@ public class ProductPage {
   public void setTotalPages(long totalPages) {
     this.totalPages = totalPages;
   }
+
+  public boolean isHasNext() {
+    return hasNext;
+  }
+
+  public void setHasNext(boolean hasNext) {
+    this.hasNext = hasNext;
+  }
 }
@@ -11,9 +11,10 @@ public class ProductRequest {
   @Size(min = 1, max = 100, message = "Invalid product name size")
   private final String name;
 
-  // todo add check for decimal .2
+  // at most 16 integer digits, so the amount in cents always fits in a long
   @NotNull(message = "Price cannot be null")
   @Positive(message = "Price must be a positive number")
+  @Digits(integer = 16, fraction = 2, message = "Price must have at most 2 decimal places")
   private final BigDecimal price;
 
   @PositiveOrZero
@@ -1,6 +1,7 @@
 package com.example.store.dto;
 
-import java.math.BigDecimal;
+import com.example.store.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class ProductResponse {
 
@@ -8,15 +9,24 @@ public class ProductResponse {
 
   private final String name;
 
-  private final BigDecimal price;
+  private final Money price;
 
   private final int stock;
 
-  public ProductResponse(Long id, String name, BigDecimal price, int stock) {
+  // sent as the ETag header rather than in the body
+  @JsonIgnore
+  private final long version;
+
+  public ProductResponse(Long id, String name, Money price, int stock) {
+    this(id, name, price, stock, 0);
+  }
+
+  public ProductResponse(Long id, String name, Money price, int stock, long version) {
     this.id = id;
     this.name = name;
     this.price = price;
     this.stock = stock;
+    this.version = version;
   }
 
   public Long getId() {
@@ -27,7 +37,7 @@ public class ProductResponse {
     return name;
   }
 
-  public BigDecimal getPrice() {
+  public Money getPrice() {
     return price;
   }
 
@@ -35,9 +45,15 @@ public class ProductResponse {
     return stock;
   }
 
+  @JsonIgnore
+  public long getVersion() {
+    return version;
+  }
+
   @Override
   public String toString() {
-    return "ProductResponse{" + "uuid='" + id + '\'' + ", name='" + name + '\'' + ", price=" + price + ", stock=" + stock + '}';
+    return "ProductResponse{" + "uuid='" + id + '\'' + ", name='" + name + '\'' + ", price=" + price + ", stock=" + stock
+        + ", version=" + version + '}';
   }
 }
 
@@ -0,0 +1,7 @@
+package com.example.store.exception;
+
+public class DuplicateResourceException extends RuntimeException {
+  public DuplicateResourceException(String message) {
+    super(message);
+  }
+}
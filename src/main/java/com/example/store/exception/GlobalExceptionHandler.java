@@ -17,4 +17,14 @@ public class GlobalExceptionHandler {
   private ResponseEntity<String> resourceNotFoundExceptionHandler(ResourceNotFoundException ex) {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
   }
+
+  @ExceptionHandler(DuplicateResourceException.class)
+  private ResponseEntity<String> duplicateResourceExceptionHandler(DuplicateResourceException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+  }
+
+  @ExceptionHandler(InsufficientStockException.class)
+  private ResponseEntity<String> insufficientStockExceptionHandler(InsufficientStockException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+  }
 }
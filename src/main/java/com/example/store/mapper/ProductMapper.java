@@ -2,6 +2,7 @@ package com.example.store.mapper;
 
 import com.example.store.dto.ProductRequest;
 import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
 import com.example.store.model.Product;
 import org.springframework.stereotype.Component;
 
@@ -10,7 +11,7 @@ public class ProductMapper {
   public Product toProduct(ProductRequest productRequest) {
     Product product = new Product();
     product.setName(productRequest.getName());
-    product.setPrice(productRequest.getPrice());
+    product.setPrice(productRequest.getPrice() == null ? null : Money.of(productRequest.getPrice()));
     product.setStock(productRequest.getStock());
     return product;
   }
@@ -20,7 +21,8 @@ public class ProductMapper {
         product.getId(),
         product.getName(),
         product.getPrice(),
-        product.getStock()
+        product.getStock(),
+        product.getVersion()
     );
   }
 }
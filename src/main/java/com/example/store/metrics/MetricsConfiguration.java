@@ -0,0 +1,31 @@
+package com.example.store.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+  @Bean
+  public StatementCounter statementCounter() {
+    return new StatementCounter();
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+    return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+  }
+
+  @Bean
+  public FilterRegistrationBean<StatementCountFilter> statementCountFilter(StatementCounter statementCounter,
+      MeterRegistry meterRegistry) {
+    FilterRegistrationBean<StatementCountFilter> registration =
+        new FilterRegistrationBean<>(new StatementCountFilter(statementCounter, meterRegistry));
+    registration.addUrlPatterns("/products", "/products/*");
+    return registration;
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.store.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the SQL statements Hibernate prepares on the request thread, per method and URI pattern.
+ * <p>
+ * Requests that go async, such as the {@code StreamingResponseBody} endpoints, run their queries on another
+ * thread and are not recorded, rather than being reported with a misleading count of zero.
+ */
+public class StatementCountFilter extends OncePerRequestFilter {
+
+  private final StatementCounter statementCounter;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+  public StatementCountFilter(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+    this.statementCounter = statementCounter;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    statementCounter.reset();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (!request.isAsyncStarted()) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        summary(request.getMethod(), pattern != null ? pattern.toString() : "UNKNOWN")
+            .record(statementCounter.current());
+      }
+      statementCounter.clear();
+    }
+  }
+
+  // meters are built once per method and pattern instead of on every request
+  private DistributionSummary summary(String method, String uri) {
+    return summaries.computeIfAbsent(method + " " + uri, key -> DistributionSummary.builder("store.hibernate.statements")
+        .description("SQL statements prepared by Hibernate per HTTP request")
+        .tag("method", method)
+        .tag("uri", uri)
+        .register(meterRegistry));
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.store.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  public void reset() {
+    COUNT.get()[0] = 0;
+  }
+
+  public int current() {
+    return COUNT.get()[0];
+  }
+
+  public void clear() {
+    COUNT.remove();
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.store.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Amount with exactly two decimal places, held as a count of minor units (cents). Comparison, hashing and
+ * formatting work on the {@code long} directly, so sorting and serializing prices allocates no {@link BigDecimal}.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+  public static final int SCALE = 2;
+  // "-92233720368547758.08" is the longest amount a long can hold
+  private static final int MAX_CHARS = 21;
+  private static final ThreadLocal<char[]> FORMAT_BUFFER = ThreadLocal.withInitial(() -> new char[MAX_CHARS]);
+
+  private final long cents;
+
+  private Money(long cents) {
+    this.cents = cents;
+  }
+
+  public static Money ofCents(long cents) {
+    return new Money(cents);
+  }
+
+  // rejects amounts with more than two decimal places instead of rounding them
+  public static Money of(BigDecimal amount) throws ArithmeticException {
+    return new Money(amount.movePointRight(SCALE).longValueExact());
+  }
+
+  public static Money parse(String amount) throws NumberFormatException, ArithmeticException {
+    return of(new BigDecimal(amount));
+  }
+
+  public long getCents() {
+    return cents;
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, SCALE);
+  }
+
+  // writes the plain decimal form into the end of the buffer and returns its start index
+  static int format(long cents, char[] buffer) {
+    int position = buffer.length;
+    boolean negative = cents < 0;
+    for (int digit = 0; digit < SCALE; digit++) {
+      buffer[--position] = (char) ('0' + Math.abs(cents % 10));
+      cents /= 10;
+    }
+    buffer[--position] = '.';
+    do {
+      buffer[--position] = (char) ('0' + Math.abs(cents % 10));
+      cents /= 10;
+    } while (cents != 0);
+    if (negative) {
+      buffer[--position] = '-';
+    }
+    return position;
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(cents, other.cents);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return this == other || other instanceof Money money && cents == money.cents;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(cents);
+  }
+
+  @Override
+  public String toString() {
+    char[] buffer = new char[MAX_CHARS];
+    int start = format(cents, buffer);
+    return new String(buffer, start, buffer.length - start);
+  }
+
+  // written as a plain JSON number such as 1.99, from a per-thread buffer
+  public static class Serializer extends StdScalarSerializer<Money> {
+
+    public Serializer() {
+      super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+      char[] buffer = FORMAT_BUFFER.get();
+      int start = format(value.cents, buffer);
+      generator.writeRawValue(buffer, start, buffer.length - start);
+    }
+  }
+
+  public static class Deserializer extends StdScalarDeserializer<Money> {
+
+    public Deserializer() {
+      super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+      try {
+        return Money.of(parser.getDecimalValue());
+      } catch (ArithmeticException ex) {
+        return (Money) context.handleWeirdNumberValue(Money.class, parser.getDecimalValue(),
+            "amount must have at most " + SCALE + " decimal places");
+      }
+    }
+  }
+}
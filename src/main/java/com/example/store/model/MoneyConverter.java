@@ -0,0 +1,21 @@
+package com.example.store.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link Money} as its number of cents in a BIGINT column.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+  @Override
+  public Long convertToDatabaseColumn(Money money) {
+    return money == null ? null : money.getCents();
+  }
+
+  @Override
+  public Money convertToEntityAttribute(Long cents) {
+    return cents == null ? null : Money.ofCents(cents);
+  }
+}
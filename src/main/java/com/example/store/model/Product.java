@@ -1,25 +1,45 @@
 package com.example.store.model;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-
-import java.math.BigDecimal;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 @Entity
+@Table(name = "product",
+    uniqueConstraints = @UniqueConstraint(name = "uk_product_name", columnNames = "name"),
+    indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_stock_id", columnList = "stock, id")
+    })
 public class Product {
 
+  // pooled sequence allocation keeps JDBC insert batching enabled, which IDENTITY would disable
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+  @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
   private Long id;
 
+  @Column(nullable = false, length = 100)
   private String name;
 
-  private BigDecimal price;
+  // cents in a BIGINT column, so sorting and range filters compare integers
+  @Convert(converter = MoneyConverter.class)
+  private Money price;
 
   private int stock;
 
+  // bumped on every change, including bulk stock updates, and used as the HTTP entity tag
+  @Version
+  private long version;
+
   public Product() {
     // empty
   }
@@ -40,11 +60,11 @@ public class Product {
     this.name = name;
   }
 
-  public BigDecimal getPrice() {
+  public Money getPrice() {
     return price;
   }
 
-  public void setPrice(BigDecimal price) {
+  public void setPrice(Money price) {
     this.price = price;
   }
 
@@ -56,16 +76,26 @@ public class Product {
     this.stock = stock;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
   @Override
   public String toString() {
-    return "Product{" + "id=" + id + ", name='" + name + '\'' + ", price=" + price + ", stock=" + stock + '}';
+    return "Product{" + "id=" + id + ", name='" + name + '\'' + ", price=" + price + ", stock=" + stock
+        + ", version=" + version + '}';
   }
 
   public static class ProductBuilder {
     private Long id;
     private String name;
-    private BigDecimal price;
+    private Money price;
     private int stock;
+    private long version;
 
     public ProductBuilder id(Long id) {
       this.id = id;
@@ -77,7 +107,7 @@ public class Product {
       return this;
     }
 
-    public ProductBuilder price(BigDecimal price) {
+    public ProductBuilder price(Money price) {
       this.price = price;
       return this;
     }
@@ -87,12 +117,18 @@ public class Product {
       return this;
     }
 
+    public ProductBuilder version(long version) {
+      this.version = version;
+      return this;
+    }
+
     public Product build() {
       Product product = new Product();
       product.setId(id);
       product.setName(name);
       product.setPrice(price);
       product.setStock(stock);
+      product.setVersion(version);
       return product;
     }
   }
@@ -1,12 +1,59 @@
 package com.example.store.repository;
 
+import com.example.store.dto.ProductResponse;
 import com.example.store.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
   Optional<Product> findByName(String name);
+
+  Slice<Product> findAllBy(Pageable pageable);
+
+  // constructor projection keeps rows out of the persistence context while the cursor is open
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select new com.example.store.dto.ProductResponse(p.id, p.name, p.price, p.stock, p.version)"
+      + " from Product p order by p.id")
+  Stream<ProductResponse> streamAll();
+
+  List<Product> findByNameIn(Collection<String> names);
+
+  // every update bumps one version, so the sum moves with any change to the catalog
+  @Query("select coalesce(sum(p.version), 0) from Product p")
+  long sumVersions();
+
+  boolean existsByName(String name);
+
+  // the bounds keep the new stock inside 0..Integer.MAX_VALUE without doing int overflow in SQL
+  default int adjustStock(String name, int delta) {
+    if (delta == Integer.MIN_VALUE) {
+      return 0;
+    }
+    int minStock = delta < 0 ? -delta : 0;
+    int maxStock = delta > 0 ? Integer.MAX_VALUE - delta : Integer.MAX_VALUE;
+    return adjustStockWithin(name, delta, minStock, maxStock);
+  }
+
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Product p set p.stock = p.stock + :delta, p.version = p.version + 1"
+      + " where p.name = :name and p.stock between :minStock and :maxStock")
+  int adjustStockWithin(@Param("name") String name, @Param("delta") int delta,
+      @Param("minStock") int minStock, @Param("maxStock") int maxStock);
 }
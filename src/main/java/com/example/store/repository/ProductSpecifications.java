@@ -0,0 +1,39 @@
+package com.example.store.repository;
+
+import com.example.store.model.Product;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class ProductSpecifications {
+
+  private ProductSpecifications() {
+  }
+
+  public static Specification<Product> any() {
+    return (root, query, cb) -> cb.conjunction();
+  }
+
+  // rows strictly after (value, id) in the given direction, id breaking ties between equal values
+  public static <T extends Comparable<? super T>> Specification<Product> after(String property, T value, long id,
+      boolean ascending) {
+    return (root, query, cb) -> {
+      Path<T> path = root.get(property);
+      Path<Long> idPath = root.get("id");
+      Predicate beyond = ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+      Predicate tieBreak = ascending ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+      return cb.or(beyond, cb.and(cb.equal(path, value), tieBreak));
+    };
+  }
+
+  // inclusive range; a null bound leaves that side open
+  public static <T extends Comparable<? super T>> Specification<Product> between(String property, T min, T max) {
+    return (root, query, cb) -> {
+      Path<T> path = root.get(property);
+      if (min != null && max != null) {
+        return cb.between(path, min, max);
+      }
+      return min != null ? cb.greaterThanOrEqualTo(path, min) : cb.lessThanOrEqualTo(path, max);
+    };
+  }
+}
@@ -0,0 +1,231 @@
+package com.example.store.search;
+
+import com.example.store.dto.ProductResponse;
+import com.example.store.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process keyword and prefix index over product names. Names are split into lower-case words; an inverted
+ * index maps every word to the ids of the products containing it, and the sorted term dictionary answers
+ * prefix lookups for type-ahead. The index is built from the product table on startup and kept current by the
+ * services that add products.
+ */
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  // bounds the products a short prefix or a common word pulls into ranking
+  private static final int CANDIDATES_PER_RESULT = 20;
+
+  private final ProductRepository productRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+  private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+  public ProductSearchIndex(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+      @Value("${store.search.enabled:true}") boolean enabled) {
+    this.productRepository = productRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!enabled) {
+      return;
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      try (Stream<ProductResponse> products = productRepository.streamAll()) {
+        products.forEach(this::add);
+      }
+    });
+    log.info("Indexed {} product names with {} distinct words", names.size(), postings.size());
+  }
+
+  public void add(ProductResponse product) {
+    if (!enabled || product == null || product.getId() == null || product.getName() == null) {
+      return;
+    }
+    Long id = product.getId();
+    String previous = names.put(id, product.getName());
+    if (product.getName().equals(previous)) {
+      return;
+    }
+    if (previous != null) {
+      for (String word : words(previous)) {
+        postings.computeIfPresent(word, (key, ids) -> ids.remove(id) && ids.isEmpty() ? null : ids);
+      }
+    }
+    for (String word : words(product.getName())) {
+      postings.computeIfAbsent(word, key -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+  }
+
+  // every query word has to match; the last one may also match as a prefix, since it is usually still being typed
+  public List<String> search(String query, int limit) {
+    List<String> queryWords = words(query);
+    if (!enabled || queryWords.isEmpty() || limit < 1) {
+      return List.of();
+    }
+    List<String> exactWords = queryWords.subList(0, queryWords.size() - 1);
+    String prefix = queryWords.get(queryWords.size() - 1);
+    int maxCandidates = limit * CANDIDATES_PER_RESULT;
+    Set<Long> candidates = exactWords.isEmpty()
+        ? prefixCandidates(prefix, maxCandidates)
+        : exactCandidates(exactWords, prefix, maxCandidates);
+
+    List<Match> matches = new ArrayList<>();
+    for (Long id : candidates) {
+      String name = names.get(id);
+      if (name == null) {
+        continue;
+      }
+      List<String> nameWords = words(name);
+      int score = score(nameWords, exactWords, prefix);
+      if (score > 0) {
+        matches.add(new Match(name, score));
+      }
+    }
+    return matches.stream()
+        .sorted(Comparator.comparingInt(Match::score).reversed()
+            .thenComparingInt(match -> match.name().length())
+            .thenComparing(Match::name))
+        .limit(limit)
+        .map(Match::name)
+        .toList();
+  }
+
+  // the term dictionary is sorted, so the exact word comes first and shorter completions before longer ones
+  private Set<Long> prefixCandidates(String prefix, int maxCandidates) {
+    Set<Long> candidates = new LinkedHashSet<>();
+    for (Set<Long> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+      for (Long id : ids) {
+        candidates.add(id);
+        if (candidates.size() >= maxCandidates) {
+          return candidates;
+        }
+      }
+    }
+    return candidates;
+  }
+
+  // only ids that have every word and a word starting with the prefix count towards the cap, so a rare completion
+  // of a common word is never crowded out; walks whichever is smaller, the shortest posting list or the postings
+  // under the prefix, and looks the id up in the rest
+  private Set<Long> exactCandidates(List<String> words, String prefix, int maxCandidates) {
+    List<Set<Long>> lists = new ArrayList<>(words.size());
+    for (String word : words) {
+      Set<Long> ids = postings.get(word);
+      if (ids == null) {
+        return Set.of();
+      }
+      lists.add(ids);
+    }
+    lists.sort(Comparator.comparingInt(Set::size));
+    Collection<Set<Long>> prefixLists = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values();
+    Set<Long> candidates = new LinkedHashSet<>();
+    if (sizeBelow(prefixLists, lists.get(0).size())) {
+      for (Set<Long> ids : prefixLists) {
+        for (Long id : ids) {
+          if (containedInAll(lists, id) && candidates.add(id) && candidates.size() >= maxCandidates) {
+            return candidates;
+          }
+        }
+      }
+      return candidates;
+    }
+    for (Long id : lists.get(0)) {
+      if (containedInAll(lists, id) && prefixLists.stream().anyMatch(ids -> ids.contains(id))) {
+        candidates.add(id);
+        if (candidates.size() >= maxCandidates) {
+          break;
+        }
+      }
+    }
+    return candidates;
+  }
+
+  private static boolean containedInAll(List<Set<Long>> lists, Long id) {
+    for (Set<Long> ids : lists) {
+      if (!ids.contains(id)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // stops counting as soon as the bound is reached, since a short prefix can cover most of the dictionary
+  private static boolean sizeBelow(Collection<Set<Long>> lists, int bound) {
+    long size = 0;
+    for (Set<Long> ids : lists) {
+      size += ids.size();
+      if (size >= bound) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // a whole word counts twice a prefix hit; starting with the query only breaks ties between equal word matches
+  static int score(List<String> nameWords, List<String> exactWords, String prefix) {
+    int score = 0;
+    for (String word : exactWords) {
+      if (!nameWords.contains(word)) {
+        return 0;
+      }
+      score += 4;
+    }
+    if (nameWords.contains(prefix)) {
+      score += 4;
+    } else if (nameWords.stream().anyMatch(word -> word.startsWith(prefix))) {
+      score += 2;
+    } else {
+      return 0;
+    }
+    String first = exactWords.isEmpty() ? prefix : exactWords.get(0);
+    if (nameWords.get(0).startsWith(first)) {
+      score += 1;
+    }
+    return score;
+  }
+
+  static List<String> words(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    Set<String> words = new LinkedHashSet<>();
+    for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!word.isEmpty()) {
+        words.add(word);
+      }
+    }
+    return List.copyOf(words);
+  }
+
+  private record Match(String name, int score) {
+  }
+}
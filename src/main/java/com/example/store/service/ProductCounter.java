@@ -0,0 +1,68 @@
+package com.example.store.service;
+
+import com.example.store.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate product count shared across requests. Local writes adjust it incrementally and it is
+ * re-read from the database once it is older than the refresh interval, so writes from other nodes
+ * are picked up eventually. Page totals only come from here when approximate totals are enabled;
+ * otherwise every page runs its own COUNT.
+ */
+@Component
+public class ProductCounter {
+
+  private static final long UNKNOWN = -1;
+
+  private final ProductRepository productRepository;
+  private final boolean enabled;
+  private final long refreshIntervalNanos;
+  private final AtomicLong count = new AtomicLong(UNKNOWN);
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private volatile long loadedAt;
+
+  public ProductCounter(ProductRepository productRepository,
+      @Value("${store.products.approximate-totals:false}") boolean enabled,
+      @Value("${store.products.count-refresh-interval:30s}") Duration refreshInterval) {
+    this.productRepository = productRepository;
+    this.enabled = enabled;
+    this.refreshIntervalNanos = refreshInterval.toNanos();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long get() {
+    long current = count.get();
+    if (current != UNKNOWN && System.nanoTime() - loadedAt < refreshIntervalNanos) {
+      return current;
+    }
+    if (current != UNKNOWN && !refreshLock.tryLock()) {
+      return current;
+    }
+    if (current == UNKNOWN) {
+      refreshLock.lock();
+    }
+    try {
+      if (count.get() != UNKNOWN && System.nanoTime() - loadedAt < refreshIntervalNanos) {
+        return count.get();
+      }
+      long loaded = productRepository.count();
+      count.set(loaded);
+      loadedAt = System.nanoTime();
+      return loaded;
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  public void add(long delta) {
+    count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current + delta));
+  }
+}
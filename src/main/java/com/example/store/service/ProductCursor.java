@@ -0,0 +1,74 @@
+package com.example.store.service;
+
+import com.example.store.model.Money;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductSpecifications;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort field and direction, the sort value of the last returned row and its id.
+ */
+final class ProductCursor {
+
+  private final String property;
+  private final Sort.Direction direction;
+  private final long id;
+  private final String value;
+
+  private ProductCursor(String property, Sort.Direction direction, long id, String value) {
+    this.property = property;
+    this.direction = direction;
+    this.id = id;
+    this.value = value;
+  }
+
+  static ProductCursor of(Sort.Order order, Product last) {
+    String value = switch (order.getProperty()) {
+      case "name" -> last.getName();
+      case "price" -> Long.toString(last.getPrice().getCents());
+      case "stock" -> Integer.toString(last.getStock());
+      default -> throw new IllegalArgumentException("Invalid sort field: " + order.getProperty());
+    };
+    return new ProductCursor(order.getProperty(), order.getDirection(), last.getId(), value);
+  }
+
+  static ProductCursor decode(String cursor) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = decoded.split(":", 4);
+      if (parts.length != 4) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new ProductCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.parseLong(parts[2]), parts[3]);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+
+  String encode() {
+    String raw = property + ":" + direction.name() + ":" + id + ":" + value;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  boolean matches(Sort.Order order) {
+    return property.equals(order.getProperty()) && direction == order.getDirection();
+  }
+
+  Specification<Product> toSpecification() {
+    boolean ascending = direction.isAscending();
+    try {
+      return switch (property) {
+        case "name" -> ProductSpecifications.after(property, value, id, ascending);
+        case "price" -> ProductSpecifications.after(property, Money.ofCents(Long.parseLong(value)), id, ascending);
+        case "stock" -> ProductSpecifications.after(property, Integer.valueOf(value), id, ascending);
+        default -> throw new IllegalArgumentException("Invalid cursor");
+      };
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.store.service;
+
+import org.springframework.http.MediaType;
+
+public enum ProductExportFormat {
+  NDJSON(MediaType.APPLICATION_NDJSON),
+  CSV(new MediaType("text", "csv"));
+
+  private final MediaType mediaType;
+
+  ProductExportFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+  public static ProductExportFormat from(String format) {
+    for (ProductExportFormat value : values()) {
+      if (value.name().equalsIgnoreCase(format)) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Invalid export format: " + format);
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.store.service;
+
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+@Service
+public class ProductExportService {
+
+  private final ProductRepository productRepository;
+  private final ObjectMapper objectMapper;
+  private final EntityManager entityManager;
+  private final StockWriteBuffer stockWriteBuffer;
+
+  public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper,
+      EntityManager entityManager, StockWriteBuffer stockWriteBuffer) {
+    this.productRepository = productRepository;
+    this.objectMapper = objectMapper;
+    this.entityManager = entityManager;
+    this.stockWriteBuffer = stockWriteBuffer;
+  }
+
+  @Transactional(readOnly = true)
+  public void export(ProductExportFormat format, OutputStream outputStream) throws IOException {
+    OutputStream target = StreamUtils.nonClosing(outputStream);
+    try (Stream<ProductResponse> products = productRepository.streamAll().map(this::withPendingStock)) {
+      switch (format) {
+        case NDJSON -> writeNdjson(products.iterator(), target);
+        case CSV -> writeCsv(products.iterator(), target);
+      }
+    }
+  }
+
+  // the sorted, filtered listing in one response; rows are read from a database cursor only as fast as the
+  // client consumes them, because writes block once the socket buffer is full. buffered stock is overlaid on the
+  // rows, while sorting and the inStock filter still see the stock already written to the database
+  @Transactional(readOnly = true)
+  public void streamListing(Sort sort, ProductFilter filter, OutputStream outputStream) throws IOException {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ProductResponse> query = cb.createQuery(ProductResponse.class);
+    Root<Product> root = query.from(Product.class);
+    query.select(cb.construct(ProductResponse.class,
+        root.get("id"), root.get("name"), root.get("price"), root.get("stock"), root.get("version")));
+    query.where(filter.toSpecification().toPredicate(root, query, cb));
+    List<Order> orders = new ArrayList<>(QueryUtils.toOrders(sort, root, cb));
+    orders.add(cb.asc(root.get("id")));
+    query.orderBy(orders);
+    OutputStream target = StreamUtils.nonClosing(outputStream);
+    try (Stream<ProductResponse> products = entityManager.createQuery(query)
+        .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+        .getResultStream()
+        .map(this::withPendingStock)) {
+      writeNdjson(products.iterator(), target);
+    }
+  }
+
+  // same overlay as the single-product reads, so an export never shows stock older than a lookup would
+  private ProductResponse withPendingStock(ProductResponse product) {
+    OptionalInt pendingStock = stockWriteBuffer.pendingStock(product.getId());
+    if (pendingStock.isEmpty()) {
+      return product;
+    }
+    return new ProductResponse(product.getId(), product.getName(), product.getPrice(), pendingStock.getAsInt(),
+        product.getVersion());
+  }
+
+  private void writeNdjson(Iterator<ProductResponse> products, OutputStream outputStream) throws IOException {
+    ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+      while (products.hasNext()) {
+        writer.writeValue(generator, products.next());
+        generator.writeRaw('\n');
+      }
+    }
+  }
+
+  private static void writeCsv(Iterator<ProductResponse> products, OutputStream outputStream) throws IOException {
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+      writer.write("id,name,price,stock\n");
+      while (products.hasNext()) {
+        ProductResponse product = products.next();
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writer.write(csvField(product.getName()));
+        writer.write(',');
+        writer.write(product.getPrice().toString());
+        writer.write(',');
+        writer.write(Integer.toString(product.getStock()));
+        writer.write('\n');
+      }
+    }
+  }
+
+  private static String csvField(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
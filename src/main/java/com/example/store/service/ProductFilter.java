@@ -0,0 +1,113 @@
+package com.example.store.service;
+
+import com.example.store.model.Money;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Inclusive price and stock ranges for product listings. {@code inStock} is folded into the stock range, so
+ * equivalent requests produce equal filters and share one cached page.
+ */
+public final class ProductFilter {
+
+  public static final ProductFilter NONE = new ProductFilter(null, null, null, null);
+
+  private final Money minPrice;
+  private final Money maxPrice;
+  private final Integer minStock;
+  private final Integer maxStock;
+
+  private ProductFilter(Money minPrice, Money maxPrice, Integer minStock, Integer maxStock) {
+    this.minPrice = minPrice;
+    this.maxPrice = maxPrice;
+    this.minStock = minStock;
+    this.maxStock = maxStock;
+  }
+
+  // inStock=true keeps products with stock, inStock=false keeps the sold-out ones
+  public static ProductFilter of(BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock, Integer minStock)
+      throws IllegalArgumentException {
+    Money min = toMoney("minPrice", minPrice);
+    Money max = toMoney("maxPrice", maxPrice);
+    if (min != null && max != null && min.compareTo(max) > 0) {
+      throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+    }
+    if (minStock != null && minStock < 0) {
+      throw new IllegalArgumentException("minStock cannot be negative");
+    }
+    Integer lowestStock = minStock == null || minStock == 0 ? null : minStock;
+    Integer highestStock = null;
+    if (Boolean.TRUE.equals(inStock)) {
+      lowestStock = Math.max(1, lowestStock == null ? 0 : lowestStock);
+    } else if (Boolean.FALSE.equals(inStock)) {
+      if (lowestStock != null) {
+        throw new IllegalArgumentException("inStock=false cannot be combined with minStock");
+      }
+      highestStock = 0;
+    }
+    if (min == null && max == null && lowestStock == null && highestStock == null) {
+      return NONE;
+    }
+    return new ProductFilter(min, max, lowestStock, highestStock);
+  }
+
+  private static Money toMoney(String parameter, BigDecimal amount) {
+    if (amount == null) {
+      return null;
+    }
+    if (amount.signum() < 0) {
+      throw new IllegalArgumentException(parameter + " cannot be negative");
+    }
+    try {
+      return Money.of(amount);
+    } catch (ArithmeticException ex) {
+      throw new IllegalArgumentException(parameter + " must have at most " + Money.SCALE + " decimal places");
+    }
+  }
+
+  public boolean isEmpty() {
+    return this == NONE;
+  }
+
+  // a stock change can move a product into or out of pages filtered by stock
+  public boolean dependsOnStock() {
+    return minStock != null || maxStock != null;
+  }
+
+  public Specification<Product> toSpecification() {
+    Specification<Product> specification = ProductSpecifications.any();
+    if (minPrice != null || maxPrice != null) {
+      specification = specification.and(ProductSpecifications.between("price", minPrice, maxPrice));
+    }
+    if (minStock != null || maxStock != null) {
+      specification = specification.and(ProductSpecifications.between("stock", minStock, maxStock));
+    }
+    return specification;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ProductFilter that = (ProductFilter) o;
+    return Objects.equals(minPrice, that.minPrice) &&
+        Objects.equals(maxPrice, that.maxPrice) &&
+        Objects.equals(minStock, that.minStock) &&
+        Objects.equals(maxStock, that.maxStock);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(minPrice, maxPrice, minStock, maxStock);
+  }
+
+  @Override
+  public String toString() {
+    return "ProductFilter{" + "minPrice=" + minPrice + ", maxPrice=" + maxPrice + ", minStock=" + minStock
+        + ", maxStock=" + maxStock + '}';
+  }
+}
@@ -0,0 +1,190 @@
+package com.example.store.service;
+
+import com.example.store.cache.CacheConfiguration;
+import com.example.store.dto.BulkImportError;
+import com.example.store.dto.BulkImportResult;
+import com.example.store.dto.ProductRequest;
+import com.example.store.dto.ProductResponse;
+import com.example.store.mapper.ProductMapper;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import com.example.store.search.ProductSearchIndex;
+import com.example.store.snapshot.ProductSnapshot;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportService {
+
+  private static final String MALFORMED_PRODUCT = "Malformed product payload";
+
+  private final ProductRepository productRepository;
+  private final ProductMapper productMapper;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
+  private final CacheManager cacheManager;
+  private final ProductCounter productCounter;
+  private final ProductSnapshot productSnapshot;
+  private final ProductSearchIndex productSearchIndex;
+  private final int batchSize;
+
+  public ProductImportService(ProductRepository productRepository, ProductMapper productMapper,
+      EntityManager entityManager, TransactionTemplate transactionTemplate, Validator validator,
+      CacheManager cacheManager, ProductCounter productCounter, ProductSnapshot productSnapshot,
+      ProductSearchIndex productSearchIndex, @Value("${store.bulk.batch-size:500}") int batchSize) {
+    this.productRepository = productRepository;
+    this.productMapper = productMapper;
+    this.entityManager = entityManager;
+    this.transactionTemplate = transactionTemplate;
+    this.validator = validator;
+    this.cacheManager = cacheManager;
+    this.productCounter = productCounter;
+    this.productSnapshot = productSnapshot;
+    this.productSearchIndex = productSearchIndex;
+    this.batchSize = batchSize;
+  }
+
+  // every item that cannot be read, validated or mapped is reported with its index, and the import goes on
+  public BulkImportResult importProducts(Iterator<ProductRequest> requests) {
+    List<BulkImportError> errors = new ArrayList<>();
+    List<IndexedRequest> batch = new ArrayList<>(batchSize);
+    int received = 0;
+    int imported = 0;
+    try {
+      while (true) {
+        int index = received;
+        ProductRequest request;
+        try {
+          if (!requests.hasNext()) {
+            break;
+          }
+          received++;
+          request = requests.next();
+        } catch (RuntimeJsonMappingException ex) {
+          // the reader skips the value that did not bind and resumes at the next item
+          received = index + 1;
+          errors.add(new BulkImportError(index, null, MALFORMED_PRODUCT));
+          continue;
+        } catch (RuntimeException ex) {
+          if (!(ex.getCause() instanceof IOException)) {
+            throw ex;
+          }
+          // a syntax error leaves the rest of the stream unreadable, the items before it are still imported
+          received = index + 1;
+          errors.add(new BulkImportError(index, null, MALFORMED_PRODUCT));
+          break;
+        }
+        String violations = validate(request);
+        if (violations != null) {
+          errors.add(new BulkImportError(index, request == null ? null : request.getName(), violations));
+          continue;
+        }
+        Product product;
+        try {
+          product = productMapper.toProduct(request);
+        } catch (ArithmeticException ex) {
+          errors.add(new BulkImportError(index, request.getName(), "Price is out of range"));
+          continue;
+        }
+        batch.add(new IndexedRequest(index, request, product));
+        if (batch.size() == batchSize) {
+          imported += insertBatch(batch, errors);
+          batch.clear();
+        }
+      }
+      imported += insertBatch(batch, errors);
+    } finally {
+      productCounter.add(imported);
+      Cache pageCache = cacheManager.getCache(CacheConfiguration.PAGE_CACHE);
+      if (imported > 0 && pageCache != null) {
+        pageCache.clear();
+      }
+    }
+    return new BulkImportResult(received, imported, errors);
+  }
+
+  private String validate(ProductRequest request) {
+    if (request == null) {
+      return "Product cannot be null";
+    }
+    Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private int insertBatch(List<IndexedRequest> batch, List<BulkImportError> errors) {
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    List<Product> products = batch.stream().map(IndexedRequest::product).toList();
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        productRepository.saveAll(products);
+        productRepository.flush();
+        entityManager.clear();
+      });
+      products.forEach(product -> {
+        ProductResponse productResponse = productMapper.toProductResponse(product);
+        productSnapshot.put(productResponse);
+        productSearchIndex.add(productResponse);
+      });
+      return batch.size();
+    } catch (DataAccessException ex) {
+      entityManager.clear();
+      return insertOneByOne(batch, errors);
+    }
+  }
+
+  // a failed batch is retried item by item so that only the offending rows are reported
+  private int insertOneByOne(List<IndexedRequest> batch, List<BulkImportError> errors) {
+    int imported = 0;
+    for (IndexedRequest item : batch) {
+      try {
+        Product product = productMapper.toProduct(item.request());
+        transactionTemplate.executeWithoutResult(status -> {
+          productRepository.saveAndFlush(product);
+          entityManager.detach(product);
+        });
+        ProductResponse productResponse = productMapper.toProductResponse(product);
+        productSnapshot.put(productResponse);
+        productSearchIndex.add(productResponse);
+        imported++;
+      } catch (DataIntegrityViolationException ex) {
+        entityManager.clear();
+        errors.add(new BulkImportError(item.index(), item.request().getName(),
+            ProductService.isDuplicateName(ex) ? "Product already exists" : ex.getMostSpecificCause().getMessage()));
+      } catch (DataAccessException ex) {
+        entityManager.clear();
+        errors.add(new BulkImportError(item.index(), item.request().getName(), ex.getMostSpecificCause().getMessage()));
+      }
+    }
+    return imported;
+  }
+
+  private record IndexedRequest(int index, ProductRequest request, Product product) {
+  }
+}
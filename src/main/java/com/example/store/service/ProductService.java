@@ -1,69 +1,282 @@
 package com.example.store.service;
 
+import com.example.store.cache.CacheConfiguration;
+import com.example.store.cache.PageCacheInvalidator;
+import com.example.store.dto.ProductCursorPage;
+import com.example.store.dto.ProductLookup;
 import com.example.store.dto.ProductPage;
 import com.example.store.dto.ProductRequest;
 import com.example.store.dto.ProductResponse;
+import com.example.store.exception.DuplicateResourceException;
+import com.example.store.exception.InsufficientStockException;
 import com.example.store.exception.ResourceNotFoundException;
 import com.example.store.mapper.ProductMapper;
 import com.example.store.model.Product;
 import com.example.store.repository.ProductRepository;
+import com.example.store.search.ProductSearchIndex;
+import com.example.store.snapshot.ProductSnapshot;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class ProductService {
 
-  private static final List<String> VALID_SORT_FIELDS = List.of("name", "price", "stock");
+  public static final List<String> VALID_SORT_FIELDS = List.of("name", "price", "stock");
+  private static final int MAX_PAGE_SIZE = 2000;
+  private static final int MAX_LOOKUP_NAMES = 500;
+  private static final int MAX_SEARCH_RESULTS = 100;
+  private static final String UNIQUE_NAME_CONSTRAINT = "uk_product_name";
+  private static final int STOCK_LOCK_STRIPES = 256;
   private final ProductRepository productRepository;
   private final ProductMapper productMapper;
+  private final PageCacheInvalidator pageCacheInvalidator;
+  private final ProductCounter productCounter;
+  private final CacheManager cacheManager;
+  private final StockWriteBuffer stockWriteBuffer;
+  private final ProductSnapshot productSnapshot;
+  private final ProductSearchIndex productSearchIndex;
+  // striped per product id; only taken with write-behind, between buffered writes and delta adjustments
+  private final ReentrantLock[] stockLocks = newLocks(STOCK_LOCK_STRIPES);
 
-  public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+  public ProductService(ProductRepository productRepository, ProductMapper productMapper,
+      PageCacheInvalidator pageCacheInvalidator, ProductCounter productCounter, CacheManager cacheManager,
+      StockWriteBuffer stockWriteBuffer, ProductSnapshot productSnapshot, ProductSearchIndex productSearchIndex) {
     this.productRepository = productRepository;
     this.productMapper = productMapper;
+    this.pageCacheInvalidator = pageCacheInvalidator;
+    this.productCounter = productCounter;
+    this.cacheManager = cacheManager;
+    this.stockWriteBuffer = stockWriteBuffer;
+    this.productSnapshot = productSnapshot;
+    this.productSearchIndex = productSearchIndex;
   }
 
+  // a new product shifts every page and changes the totals, so all cached pages are stale
   @CacheEvict(value = "page", allEntries = true)
   @CachePut(value = "single", key = "#p0.getName()")
   public ProductResponse addProduct(ProductRequest productRequest) {
     Product product = productMapper.toProduct(productRequest);
-    Product savedProduct = productRepository.save(product);
-    return productMapper.toProductResponse(savedProduct);
+    Product savedProduct;
+    // sequence ids defer the INSERT, so it is flushed here to hit the unique name inside an enclosing transaction too
+    try {
+      savedProduct = productRepository.saveAndFlush(product);
+    } catch (DataIntegrityViolationException ex) {
+      if (!isDuplicateName(ex)) {
+        throw ex;
+      }
+      throw new DuplicateResourceException("Product already exists");
+    }
+    productCounter.add(1);
+    ProductResponse productResponse = productMapper.toProductResponse(savedProduct);
+    productSnapshot.put(productResponse);
+    productSearchIndex.add(productResponse);
+    return productResponse;
+  }
+
+  // only a clash on the unique name is a duplicate; other violations, e.g. a NOT NULL column, are not the client's
+  static boolean isDuplicateName(DataIntegrityViolationException ex) {
+    for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation) {
+        String constraintName = violation.getConstraintName();
+        return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(UNIQUE_NAME_CONSTRAINT);
+      }
+    }
+    return false;
   }
 
-  @Cacheable(value = "single", key = "#p0")
+  // with the snapshot enabled products are read from the mapped file and are not kept in the heap cache
+  @Cacheable(value = "single", key = "#p0", sync = true, condition = "!@productSnapshot.isEnabled()")
+  @Transactional(readOnly = true)
   public ProductResponse getProduct(String name) {
-    return productRepository.findByName(name)
-        .map(productMapper::toProductResponse)
+    return productSnapshot.find(name)
+        .or(() -> productRepository.findByName(name).map(this::toProductResponse))
         .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
   }
 
-  @Cacheable(value = "page", key = "T(com.example.store.cache.PageableCacheKey).of(#p0)")
+  // answers from the "single" cache first and resolves all misses with one IN query, back-filling the cache
+  @Transactional(readOnly = true)
+  public List<ProductLookup> getProductsByName(List<String> names) throws IllegalArgumentException {
+    if (names.size() > MAX_LOOKUP_NAMES) {
+      throw new IllegalArgumentException("Too many product names, maximum is " + MAX_LOOKUP_NAMES);
+    }
+    if (names.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("Product name cannot be null");
+    }
+    Cache singleCache = cacheManager.getCache(CacheConfiguration.SINGLE_CACHE);
+    Map<String, ProductResponse> found = new HashMap<>();
+    Set<String> misses = new LinkedHashSet<>();
+    for (String name : names) {
+      ProductResponse cached = singleCache == null ? null : singleCache.get(name, ProductResponse.class);
+      if (cached == null) {
+        cached = productSnapshot.find(name).orElse(null);
+      }
+      if (cached != null) {
+        found.put(name, cached);
+      } else {
+        misses.add(name);
+      }
+    }
+    if (!misses.isEmpty()) {
+      // like getProduct, nothing is kept in the heap cache while the snapshot serves the reads
+      boolean backFill = singleCache != null && !productSnapshot.isEnabled();
+      for (Product product : productRepository.findByNameIn(misses)) {
+        ProductResponse productResponse = toProductResponse(product);
+        found.put(product.getName(), productResponse);
+        if (backFill) {
+          singleCache.put(product.getName(), productResponse);
+        }
+      }
+    }
+    return names.stream()
+        .map(name -> new ProductLookup(name, found.get(name)))
+        .toList();
+  }
+
+  // ranked names come from the in-memory index, the products themselves from the same path as _mget
+  @Transactional(readOnly = true)
+  public List<ProductResponse> searchProducts(String query, int limit) throws IllegalArgumentException {
+    if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+      throw new IllegalArgumentException("Search limit must be between 1 and " + MAX_SEARCH_RESULTS);
+    }
+    List<String> names = productSearchIndex.search(query, limit);
+    if (names.isEmpty()) {
+      return List.of();
+    }
+    return getProductsByName(names).stream()
+        .map(ProductLookup::getProduct)
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  @Cacheable(value = "page", key = "T(com.example.store.cache.PageableCacheKey).of(#p0)", sync = true)
+  @Transactional(readOnly = true)
   public ProductPage getProducts(Pageable pageable) throws IllegalArgumentException {
+    return unfilteredPage(pageable);
+  }
+
+  // a filtered listing runs a COUNT over the matching range, since the shared counter only knows the whole catalog
+  @Cacheable(value = "page", key = "T(com.example.store.cache.PageableCacheKey).of(#p0, #p1)", sync = true)
+  @Transactional(readOnly = true)
+  public ProductPage getProducts(Pageable pageable, ProductFilter filter) throws IllegalArgumentException {
+    if (filter == null || filter.isEmpty()) {
+      return unfilteredPage(pageable);
+    }
     validatePageable(pageable);
-    Page<Product> productPage = productRepository.findAll(pageable);
-    List<ProductResponse> productResponses = productPage.getContent().stream()
-        .map(productMapper::toProductResponse)
+    Page<Product> productPage = productRepository.findAll(filter.toSpecification(), pageable);
+    return toProductPage(productPage, productPage.getTotalElements());
+  }
+
+  // exact totals by default; with approximate totals enabled the page is read as a Slice without a COUNT
+  private ProductPage unfilteredPage(Pageable pageable) {
+    validatePageable(pageable);
+    if (!productCounter.isEnabled()) {
+      Page<Product> productPage = productRepository.findAll(pageable);
+      return toProductPage(productPage, productPage.getTotalElements());
+    }
+    Slice<Product> productSlice = productRepository.findAllBy(pageable);
+    return toProductPage(productSlice, totalElements(productSlice));
+  }
+
+  private ProductPage toProductPage(Slice<Product> productSlice, long totalElements) {
+    List<ProductResponse> productResponses = productSlice.getContent().stream()
+        .map(this::toProductResponse)
         .toList();
 
+    int size = productSlice.getSize();
     return new ProductPage(
         productResponses,
-        productPage.getNumber(),
-        productPage.getSize(),
-        productPage.getTotalElements(),
-        productPage.getTotalPages()
+        productSlice.getNumber(),
+        size,
+        totalElements,
+        size == 0 ? 1 : (totalElements + size - 1) / size,
+        productSlice.hasNext()
     );
   }
 
+  // the last page gives the exact total for free; otherwise fall back to the shared counter instead of COUNT(*)
+  private long totalElements(Slice<Product> productSlice) {
+    if (!productSlice.hasContent()) {
+      // past the end the offset is only an upper bound, so the counter is all there is
+      return productSlice.getNumber() == 0 ? 0 : productCounter.get();
+    }
+    long seen = (long) productSlice.getNumber() * productSlice.getSize() + productSlice.getNumberOfElements();
+    if (!productSlice.hasNext()) {
+      return seen;
+    }
+    return Math.max(productCounter.get(), seen + 1);
+  }
+
+  // the filter narrows every page of the walk, so the client passes it again along with each cursor
+  @Transactional(readOnly = true)
+  public ProductCursorPage getProductsAfter(String after, int size, Sort sort, ProductFilter filter)
+      throws IllegalArgumentException {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    Sort.Order order = keysetOrder(sort);
+    Specification<Product> specification = filter.toSpecification();
+    if (after != null && !after.isEmpty()) {
+      ProductCursor cursor = ProductCursor.decode(after);
+      if (!cursor.matches(order)) {
+        throw new IllegalArgumentException("Cursor does not match sort: " + order.getProperty());
+      }
+      specification = specification.and(cursor.toSpecification());
+    }
+
+    Sort keysetSort = Sort.by(order.getDirection(), order.getProperty()).and(Sort.by(order.getDirection(), "id"));
+    List<Product> products = productRepository.findBy(specification,
+        query -> query.sortBy(keysetSort).limit(size + 1).all());
+
+    boolean hasNext = products.size() > size;
+    List<Product> content = hasNext ? products.subList(0, size) : products;
+    List<ProductResponse> productResponses = content.stream()
+        .map(this::toProductResponse)
+        .toList();
+    String nextCursor = hasNext ? ProductCursor.of(order, content.get(size - 1)).encode() : null;
+    return new ProductCursorPage(productResponses, size, nextCursor);
+  }
+
+  private static Sort.Order keysetOrder(Sort sort) {
+    List<Sort.Order> orders = sort.toList();
+    if (orders.size() != 1) {
+      throw new IllegalArgumentException("Keyset pagination requires exactly one sort field");
+    }
+    Sort.Order order = orders.get(0);
+    if (!VALID_SORT_FIELDS.contains(order.getProperty())) {
+      throw new IllegalArgumentException("Invalid sort field: " + order.getProperty());
+    }
+    return order;
+  }
+
   private static void validatePageable(Pageable pageable) {
-    Sort sort = pageable.getSort();
+    validateSort(pageable.getSort());
+  }
+
+  public static void validateSort(Sort sort) throws IllegalArgumentException {
     for (Sort.Order order : sort) {
       if (!VALID_SORT_FIELDS.contains(order.getProperty())) {
         throw new IllegalArgumentException("Invalid sort field: " + order.getProperty());
@@ -71,13 +284,114 @@ public class ProductService {
     }
   }
 
-  @CacheEvict(value = {"page", "single"}, allEntries = true)
+  // with write-behind the cached product is replaced rather than evicted, so the next update finds it there
+  @CacheEvict(value = "single", key = "#p0", condition = "!@stockWriteBuffer.isEnabled()")
   public ProductResponse updateStock(String name, int stock) {
+    if (stockWriteBuffer.isEnabled()) {
+      return bufferStock(name, stock);
+    }
     Product product = productRepository.findByName(name)
         .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-
     product.setStock(stock);
     Product updatedProduct = productRepository.save(product);
-    return productMapper.toProductResponse(updatedProduct);
+    ProductResponse productResponse = productMapper.toProductResponse(updatedProduct);
+    productSnapshot.put(productResponse);
+    pageCacheInvalidator.onStockChanged(productResponse);
+    return productResponse;
+  }
+
+  // the update is applied to the cached product, so the database is only read when the product is not cached
+  private ProductResponse bufferStock(String name, int stock) {
+    Cache singleCache = cacheManager.getCache(CacheConfiguration.SINGLE_CACHE);
+    ProductResponse current = findCached(singleCache, name)
+        .or(() -> productRepository.findByName(name).map(productMapper::toProductResponse))
+        .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+    ReentrantLock lock = stockLock(current.getId());
+    lock.lock();
+    try {
+      stockWriteBuffer.write(current.getId(), stock);
+      ProductResponse productResponse = withStock(current, stock);
+      if (singleCache != null) {
+        // the eviction is what tells the other instances to drop their copy
+        singleCache.evict(name);
+        singleCache.put(name, productResponse);
+      }
+      productSnapshot.put(productResponse);
+      pageCacheInvalidator.onStockChanged(productResponse);
+      return productResponse;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Optional<ProductResponse> findCached(Cache singleCache, String name) {
+    ProductResponse cached = singleCache == null ? null : singleCache.get(name, ProductResponse.class);
+    return cached != null ? Optional.of(cached) : productSnapshot.find(name);
+  }
+
+  // single conditional UPDATE, so concurrent writers never lose each other's deltas; a buffered absolute
+  // value for the same product is written first, otherwise the delta would be applied to a stale stock, and
+  // buffered writes of that product wait until the delta and its re-read are done
+  @CacheEvict(value = "single", key = "#p0")
+  public ProductResponse adjustStock(String name, int delta) {
+    if (!stockWriteBuffer.isEnabled()) {
+      return applyDelta(name, delta);
+    }
+    Optional<Long> productId = findCached(cacheManager.getCache(CacheConfiguration.SINGLE_CACHE), name)
+        .map(ProductResponse::getId)
+        .or(() -> productRepository.findByName(name).map(Product::getId));
+    if (productId.isEmpty()) {
+      return applyDelta(name, delta);
+    }
+    ReentrantLock lock = stockLock(productId.get());
+    lock.lock();
+    try {
+      stockWriteBuffer.flush(productId.get());
+      return applyDelta(name, delta);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private ProductResponse applyDelta(String name, int delta) {
+    if (productRepository.adjustStock(name, delta) == 0) {
+      if (!productRepository.existsByName(name)) {
+        throw new ResourceNotFoundException("Product not found");
+      }
+      if (delta > 0) {
+        throw new IllegalArgumentException("Stock cannot exceed " + Integer.MAX_VALUE);
+      }
+      throw new InsufficientStockException("Insufficient stock");
+    }
+    ProductResponse productResponse = productRepository.findByName(name)
+        .map(productMapper::toProductResponse)
+        .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+    productSnapshot.put(productResponse);
+    pageCacheInvalidator.onStockChanged(productResponse);
+    return productResponse;
+  }
+
+  private ReentrantLock stockLock(long productId) {
+    return stockLocks[Math.floorMod(productId, stockLocks.length)];
+  }
+
+  // overlays stock values that are still waiting in the write-behind buffer
+  private ProductResponse toProductResponse(Product product) {
+    ProductResponse productResponse = productMapper.toProductResponse(product);
+    OptionalInt pendingStock = stockWriteBuffer.pendingStock(product.getId());
+    return pendingStock.isPresent() ? withStock(productResponse, pendingStock.getAsInt()) : productResponse;
+  }
+
+  private static ReentrantLock[] newLocks(int count) {
+    ReentrantLock[] locks = new ReentrantLock[count];
+    for (int i = 0; i < count; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    return locks;
+  }
+
+  private static ProductResponse withStock(ProductResponse productResponse, int stock) {
+    return new ProductResponse(productResponse.getId(), productResponse.getName(), productResponse.getPrice(), stock,
+        productResponse.getVersion());
   }
 }
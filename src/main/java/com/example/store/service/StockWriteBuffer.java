@@ -0,0 +1,330 @@
+package com.example.store.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind buffer for absolute stock updates. Every update is appended to a local journal and
+ * fsynced before it is acknowledged, then kept in memory where a later update to the same product replaces
+ * the earlier one. Writers that arrive while an fsync is running share the next one (group commit), so one
+ * fsync acknowledges a whole batch of updates. Pending values reach the database as one batched UPDATE per
+ * flush, on the flush interval or as soon as the number of buffered products reaches the threshold. Journals
+ * left behind by a crash are replayed on startup.
+ */
+@Component
+public class StockWriteBuffer implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(StockWriteBuffer.class);
+  private static final String UPDATE_STOCK = "update product set stock = ?, version = version + 1 where id = ?";
+  private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES;
+  // journal marker for a product whose value was written to the database on its own
+  private static final int WRITTEN = Integer.MIN_VALUE;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final Duration flushInterval;
+  private final int flushThreshold;
+  private final Path journalPath;
+  private final Path flushingPath;
+  // the append lock keeps journal order and map order identical, the sync lock allows one fsync at a time
+  // and the flush lock one flush at a time; they are taken in the order flush, sync, append
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final ReentrantLock syncLock = new ReentrantLock();
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+  private volatile Map<Long, Integer> pending = new ConcurrentHashMap<>();
+  // values taken by a running flush stay visible to readers until they are committed
+  private volatile Map<Long, Integer> flushing = Map.of();
+  // sequence of the last record appended to the journal and of the last one known to be on disk
+  private long appendedSequence;
+  private long syncedSequence;
+  private FileChannel journal;
+  private ScheduledExecutorService scheduler;
+
+  public StockWriteBuffer(JdbcTemplate jdbcTemplate,
+      @Value("${store.stock.write-behind.enabled:false}") boolean enabled,
+      @Value("${store.stock.write-behind.flush-interval:1s}") Duration flushInterval,
+      @Value("${store.stock.write-behind.flush-threshold:1000}") int flushThreshold,
+      @Value("${store.stock.write-behind.journal:data/stock-journal.bin}") Path journalPath) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+    this.flushInterval = flushInterval;
+    this.flushThreshold = flushThreshold;
+    this.journalPath = journalPath;
+    this.flushingPath = journalPath.resolveSibling(journalPath.getFileName() + ".flushing");
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  // runs once the schema exists, so a journal left by a crash can be written before new updates arrive
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      Path directory = journalPath.toAbsolutePath().getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      Map<Long, Integer> recovered = new LinkedHashMap<>();
+      readJournal(flushingPath, recovered);
+      readJournal(journalPath, recovered);
+      if (!recovered.isEmpty()) {
+        log.info("Replaying {} buffered stock updates from {}", recovered.size(), journalPath);
+        writeToDatabase(recovered);
+      }
+      Files.deleteIfExists(flushingPath);
+      Files.deleteIfExists(journalPath);
+      journal = openJournal();
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot open stock journal " + journalPath, ex);
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("stock-write-behind").daemon().factory());
+    long intervalNanos = flushInterval.toNanos();
+    scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void write(long productId, int stock) {
+    if (!enabled) {
+      throw new IllegalStateException("Stock write-behind is disabled");
+    }
+    int buffered;
+    long sequence;
+    appendLock.lock();
+    try {
+      sequence = append(productId, stock);
+      pending.put(productId, stock);
+      buffered = pending.size();
+    } finally {
+      appendLock.unlock();
+    }
+    awaitSync(sequence);
+    if (buffered >= flushThreshold) {
+      scheduler.execute(this::flushQuietly);
+    }
+  }
+
+  public OptionalInt pendingStock(Long productId) {
+    if (!enabled || productId == null) {
+      return OptionalInt.empty();
+    }
+    Integer stock = pending.get(productId);
+    if (stock == null) {
+      stock = flushing.get(productId);
+    }
+    return stock == null ? OptionalInt.empty() : OptionalInt.of(stock);
+  }
+
+  // the first writer to take the sync lock fsyncs every record appended so far; the writers queued behind it
+  // find their record already on disk and return without an fsync of their own
+  private void awaitSync(long sequence) {
+    syncLock.lock();
+    try {
+      if (syncedSequence >= sequence) {
+        return;
+      }
+      long appended;
+      appendLock.lock();
+      try {
+        appended = appendedSequence;
+      } finally {
+        appendLock.unlock();
+      }
+      journal.force(false);
+      syncedSequence = appended;
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot sync stock journal " + journalPath, ex);
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  public void flush() {
+    if (!enabled) {
+      return;
+    }
+    flushLock.lock();
+    try {
+      Map<Long, Integer> batch;
+      syncLock.lock();
+      appendLock.lock();
+      try {
+        if (pending.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        flushing = batch;
+        pending = new ConcurrentHashMap<>();
+        rotateJournal();
+      } finally {
+        appendLock.unlock();
+        syncLock.unlock();
+      }
+      try {
+        writeToDatabase(batch);
+      } catch (RuntimeException ex) {
+        requeue(batch);
+        throw ex;
+      } finally {
+        flushing = Map.of();
+      }
+      Files.deleteIfExists(flushingPath);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot rotate stock journal " + journalPath, ex);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  // writes the buffered value of one product, so that a conditional UPDATE issued next sees it; the journal
+  // records that it was written, otherwise a replay after a crash would undo the changes that followed
+  public void flush(long productId) {
+    if (!enabled || !pending.containsKey(productId) && !flushing.containsKey(productId)) {
+      return;
+    }
+    flushLock.lock();
+    try {
+      Integer stock = pending.get(productId);
+      if (stock == null) {
+        return;
+      }
+      jdbcTemplate.update(UPDATE_STOCK, stock, productId);
+      long sequence;
+      appendLock.lock();
+      try {
+        // a newer value that arrived in the meantime stays buffered and is journaled after the written one
+        if (!pending.remove(productId, stock)) {
+          return;
+        }
+        sequence = append(productId, WRITTEN);
+      } finally {
+        appendLock.unlock();
+      }
+      awaitSync(sequence);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      log.warn("Stock flush failed, buffered updates are kept for the next attempt", ex);
+    }
+  }
+
+  // newer updates that arrived during the failed flush win over the requeued values
+  private void requeue(Map<Long, Integer> batch) throws IOException {
+    long sequence = 0;
+    appendLock.lock();
+    try {
+      for (Map.Entry<Long, Integer> entry : batch.entrySet()) {
+        if (pending.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+          sequence = append(entry.getKey(), entry.getValue());
+        }
+      }
+    } finally {
+      appendLock.unlock();
+    }
+    awaitSync(sequence);
+    Files.deleteIfExists(flushingPath);
+  }
+
+  // rows are written in id order so concurrent flushes from several nodes lock rows in the same order
+  private void writeToDatabase(Map<Long, Integer> batch) {
+    List<Object[]> rows = new ArrayList<>(batch.size());
+    new TreeMap<>(batch).forEach((productId, stock) -> rows.add(new Object[] {stock, productId}));
+    jdbcTemplate.batchUpdate(UPDATE_STOCK, rows);
+  }
+
+  // returns the sequence of the appended record; it is durable once awaitSync has returned for it
+  private long append(long productId, int stock) {
+    record.clear();
+    record.putLong(productId).putInt(stock).flip();
+    try {
+      while (record.hasRemaining()) {
+        journal.write(record);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot append to stock journal " + journalPath, ex);
+    }
+    return ++appendedSequence;
+  }
+
+  // the rotated journal is replayed if the flush does not complete, so its records are synced first
+  private void rotateJournal() throws IOException {
+    journal.force(false);
+    syncedSequence = appendedSequence;
+    journal.close();
+    Files.move(journalPath, flushingPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    journal = openJournal();
+  }
+
+  private FileChannel openJournal() throws IOException {
+    return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  // a record cut short by a crash was never acknowledged, so it is dropped
+  private static void readJournal(Path path, Map<Long, Integer> target) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    while (buffer.remaining() >= RECORD_BYTES) {
+      long productId = buffer.getLong();
+      int stock = buffer.getInt();
+      if (stock == WRITTEN) {
+        target.remove(productId);
+      } else {
+        target.put(productId, stock);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() throws IOException {
+    if (!enabled || scheduler == null) {
+      return;
+    }
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(flushInterval.toMillis() + 5_000, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    flushQuietly();
+    journal.close();
+  }
+}
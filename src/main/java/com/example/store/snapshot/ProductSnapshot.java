@@ -0,0 +1,384 @@
+package com.example.store.snapshot;
+
+import com.example.store.cache.CacheInvalidation;
+import com.example.store.cache.CacheInvalidationBus;
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import com.example.store.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Optional read path that keeps the catalog in a memory-mapped file instead of on the heap. The file holds a
+ * header, an open-addressing table of name hashes to record offsets and an append-only record area. Stock
+ * changes are patched into the existing record; any other change appends a new record and repoints the slot.
+ * A file closed cleanly is reused on restart only if the product table still has the same number of rows and
+ * the same sum of row versions, otherwise it is rebuilt by streaming the product table. Stock changes made by
+ * other instances arrive over the cache invalidation bus, when one is configured.
+ */
+@Component
+public class ProductSnapshot implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductSnapshot.class);
+
+  private static final int MAGIC = 0x50524f44;
+  private static final int FORMAT_VERSION = 4;
+  private static final int STATE_CLEAN = 1;
+  private static final int STATE_OPEN = 2;
+
+  // header: magic, format version, state, slot count, entry count, data capacity, write position, version sum
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 4;
+  private static final int STATE_OFFSET = 8;
+  private static final int SLOT_COUNT_OFFSET = 12;
+  private static final int ENTRY_COUNT_OFFSET = 16;
+  private static final int DATA_CAPACITY_OFFSET = 20;
+  private static final int WRITE_POSITION_OFFSET = 24;
+  private static final int VERSION_SUM_OFFSET = 32;
+  private static final int HEADER_BYTES = 64;
+
+  // record: length, id, price in cents, stock, version, name length, name bytes
+  private static final int RECORD_ID = 4;
+  private static final int RECORD_PRICE = 12;
+  private static final int RECORD_STOCK = 20;
+  private static final int RECORD_VERSION = 24;
+  private static final int RECORD_NAME_LENGTH = 32;
+  private static final int RECORD_NAME = 36;
+  // records that could not be replaced in a full file are hidden so they are never served stale
+  private static final long REMOVED_ID = -1;
+
+  private final ProductRepository productRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final Path path;
+  private final int slotCount;
+  private final int maxEntries;
+  private final int dataCapacity;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  private int dataStart;
+  private int entryCount;
+  private int writePosition;
+  // sum of the versions of all products in the file; versions only grow, so it matches the table only if
+  // every product does
+  private long versionSum;
+  private boolean complete = true;
+  private volatile boolean ready;
+
+  public ProductSnapshot(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+      ObjectProvider<CacheInvalidationBus> invalidationBus,
+      @Value("${store.snapshot.enabled:false}") boolean enabled,
+      @Value("${store.snapshot.path:data/product-snapshot.bin}") Path path,
+      @Value("${store.snapshot.max-products:1000000}") int maxProducts,
+      @Value("${store.snapshot.data-capacity:256MB}") DataSize dataCapacity) {
+    this.productRepository = productRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.enabled = enabled;
+    this.path = path;
+    if (maxProducts < 1 || maxProducts > 1 << 26) {
+      throw new IllegalArgumentException("Product snapshot max-products must be between 1 and " + (1 << 26));
+    }
+    // a power of two between two and four times the expected products keeps probe chains short
+    this.slotCount = Integer.highestOneBit(maxProducts) << 2;
+    this.maxEntries = slotCount / 4 * 3;
+    long fileBytes = HEADER_BYTES + (long) slotCount * Integer.BYTES + dataCapacity.toBytes();
+    if (fileBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Product snapshot cannot exceed 2GB, got " + fileBytes + " bytes");
+    }
+    this.dataCapacity = (int) dataCapacity.toBytes();
+    CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+    if (enabled && bus != null) {
+      bus.subscribe(this::onInvalidation);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!enabled) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      Path directory = path.toAbsolutePath().getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      dataStart = HEADER_BYTES + slotCount * Integer.BYTES;
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) dataStart + dataCapacity);
+      if (isReusable()) {
+        entryCount = buffer.getInt(ENTRY_COUNT_OFFSET);
+        writePosition = buffer.getInt(WRITE_POSITION_OFFSET);
+        versionSum = buffer.getLong(VERSION_SUM_OFFSET);
+        log.info("Reusing product snapshot {} with {} products", path, entryCount);
+      } else {
+        rebuild();
+      }
+      buffer.putInt(STATE_OFFSET, STATE_OPEN);
+      buffer.force();
+      ready = true;
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot map product snapshot " + path, ex);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // only a file closed cleanly with the same layout is trusted, and only while no product was added or
+  // changed since, whether by another instance or while this one was down
+  private boolean isReusable() {
+    return buffer.getInt(MAGIC_OFFSET) == MAGIC
+        && buffer.getInt(VERSION_OFFSET) == FORMAT_VERSION
+        && buffer.getInt(STATE_OFFSET) == STATE_CLEAN
+        && buffer.getInt(SLOT_COUNT_OFFSET) == slotCount
+        && buffer.getInt(DATA_CAPACITY_OFFSET) == dataCapacity
+        && buffer.getInt(ENTRY_COUNT_OFFSET) == productRepository.count()
+        && buffer.getLong(VERSION_SUM_OFFSET) == productRepository.sumVersions();
+  }
+
+  private void rebuild() {
+    for (int offset = 0; offset < dataStart; offset += Integer.BYTES) {
+      buffer.putInt(offset, 0);
+    }
+    buffer.putInt(MAGIC_OFFSET, MAGIC);
+    buffer.putInt(VERSION_OFFSET, FORMAT_VERSION);
+    buffer.putInt(STATE_OFFSET, STATE_OPEN);
+    buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+    buffer.putInt(DATA_CAPACITY_OFFSET, dataCapacity);
+    entryCount = 0;
+    versionSum = 0;
+    // offset 0 of the data area marks an empty slot, so the first record starts one byte in
+    writePosition = 1;
+    complete = true;
+    transactionTemplate.executeWithoutResult(status -> {
+      try (Stream<ProductResponse> products = productRepository.streamAll()) {
+        products.forEach(this::write);
+      }
+    });
+    writeHeaderCounters();
+    log.info("Rebuilt product snapshot {} with {} products", path, entryCount);
+  }
+
+  public Optional<ProductResponse> find(String name) {
+    if (!ready || name == null) {
+      return Optional.empty();
+    }
+    byte[] key = name.getBytes(StandardCharsets.UTF_8);
+    lock.readLock().lock();
+    try {
+      int slot = findSlot(key);
+      if (slot < 0) {
+        return Optional.empty();
+      }
+      int record = recordAt(slot);
+      long id = buffer.getLong(record + RECORD_ID);
+      if (id == REMOVED_ID) {
+        return Optional.empty();
+      }
+      Money price = Money.ofCents(buffer.getLong(record + RECORD_PRICE));
+      return Optional.of(new ProductResponse(id, name, price, buffer.getInt(record + RECORD_STOCK),
+          buffer.getLong(record + RECORD_VERSION)));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void put(ProductResponse product) {
+    if (!ready || product == null || product.getId() == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      write(product);
+      writeHeaderCounters();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // a change broadcast by another instance is applied unless this file already holds a newer version
+  private void onInvalidation(CacheInvalidation invalidation) {
+    if (!(invalidation instanceof CacheInvalidation.StockChanged stockChanged)) {
+      return;
+    }
+    ProductResponse product = stockChanged.product();
+    if (!ready || product == null || product.getId() == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      int slot = findSlot(product.getName().getBytes(StandardCharsets.UTF_8));
+      if (slot >= 0 && buffer.getLong(recordAt(slot) + RECORD_VERSION) > product.getVersion()) {
+        return;
+      }
+      write(product);
+      writeHeaderCounters();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void write(ProductResponse product) {
+    byte[] key = product.getName().getBytes(StandardCharsets.UTF_8);
+    int slot = findSlot(key);
+    if (slot >= 0) {
+      int record = recordAt(slot);
+      versionSum += product.getVersion() - buffer.getLong(record + RECORD_VERSION);
+      if (buffer.getLong(record + RECORD_ID) == product.getId() && samePrice(record, product.getPrice())) {
+        buffer.putInt(record + RECORD_STOCK, product.getStock());
+        buffer.putLong(record + RECORD_VERSION, product.getVersion());
+        return;
+      }
+      int appended = append(product, key);
+      if (appended == 0) {
+        buffer.putLong(record + RECORD_ID, REMOVED_ID);
+        return;
+      }
+      buffer.putInt(slotOffset(slot), appended - dataStart);
+      return;
+    }
+    int emptySlot = -slot - 1;
+    if (emptySlot == slotCount || entryCount >= maxEntries) {
+      markIncomplete();
+      return;
+    }
+    int appended = append(product, key);
+    if (appended != 0) {
+      buffer.putInt(slotOffset(emptySlot), appended - dataStart);
+      entryCount++;
+      versionSum += product.getVersion();
+    }
+  }
+
+  // returns the absolute record offset, or 0 when the product does not fit
+  private int append(ProductResponse product, byte[] key) {
+    if (product.getPrice() == null) {
+      markIncomplete();
+      return 0;
+    }
+    int length = RECORD_NAME + key.length;
+    if ((long) writePosition + length > dataCapacity) {
+      markIncomplete();
+      return 0;
+    }
+    int record = dataStart + writePosition;
+    buffer.putInt(record, length);
+    buffer.putLong(record + RECORD_ID, product.getId());
+    buffer.putLong(record + RECORD_PRICE, product.getPrice().getCents());
+    buffer.putInt(record + RECORD_STOCK, product.getStock());
+    buffer.putLong(record + RECORD_VERSION, product.getVersion());
+    buffer.putInt(record + RECORD_NAME_LENGTH, key.length);
+    buffer.put(record + RECORD_NAME, key);
+    writePosition += length;
+    return record;
+  }
+
+  private void markIncomplete() {
+    if (complete) {
+      log.warn("Product snapshot {} is full, products that do not fit are read from the database", path);
+      complete = false;
+    }
+  }
+
+  private boolean samePrice(int record, Money price) {
+    return price != null && price.getCents() == buffer.getLong(record + RECORD_PRICE);
+  }
+
+  // linear probing; a miss returns -(first empty slot) - 1, or -slotCount - 1 when the table is full
+  private int findSlot(byte[] key) {
+    int mask = slotCount - 1;
+    int slot = hash(key) & mask;
+    for (int probes = 0; probes < slotCount; probes++) {
+      int relative = buffer.getInt(slotOffset(slot));
+      if (relative == 0) {
+        return -slot - 1;
+      }
+      if (nameEquals(dataStart + relative, key)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -slotCount - 1;
+  }
+
+  private boolean nameEquals(int record, byte[] key) {
+    if (buffer.getInt(record + RECORD_NAME_LENGTH) != key.length) {
+      return false;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (buffer.get(record + RECORD_NAME + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int recordAt(int slot) {
+    return dataStart + buffer.getInt(slotOffset(slot));
+  }
+
+  private static int slotOffset(int slot) {
+    return HEADER_BYTES + slot * Integer.BYTES;
+  }
+
+  // FNV-1a, spread so that linear probing does not cluster on similar names
+  private static int hash(byte[] key) {
+    int hash = 0x811c9dc5;
+    for (byte b : key) {
+      hash ^= b;
+      hash *= 0x01000193;
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  private void writeHeaderCounters() {
+    buffer.putInt(ENTRY_COUNT_OFFSET, entryCount);
+    buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+    buffer.putLong(VERSION_SUM_OFFSET, versionSum);
+  }
+
+  // a snapshot that dropped products is not marked clean, so the next start rebuilds it
+  @Override
+  public void destroy() throws IOException {
+    if (!ready) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      ready = false;
+      writeHeaderCounters();
+      if (complete) {
+        buffer.force();
+        buffer.putInt(STATE_OFFSET, STATE_CLEAN);
+      }
+      buffer.force();
+      channel.close();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
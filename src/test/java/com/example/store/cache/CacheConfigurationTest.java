@@ -0,0 +1,70 @@
+package com.example.store.cache;
+
+import com.example.store.dto.ProductPage;
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigurationTest {
+
+  private final CacheConfiguration cacheConfiguration = new CacheConfiguration();
+
+  @Test
+  @DisplayName("Should register bounded caches for single and page even without explicit specs")
+  void shouldRegisterDefaultBoundedCachesTest() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheConfiguration.caffeineCacheManagerCustomizer(new StoreCacheProperties()).customize(cacheManager);
+
+    for (String cacheName : List.of("single", "page")) {
+      Cache<Object, Object> nativeCache = nativeCache(cacheManager, cacheName);
+      assertThat(nativeCache.policy().eviction()).isPresent();
+      assertThat(nativeCache.policy().eviction().get().getMaximum()).isEqualTo(10_000);
+    }
+  }
+
+  @Test
+  @DisplayName("Should apply size, weight, expiry and stats settings from the spec")
+  void shouldApplySpecSettingsTest() {
+    StoreCacheProperties properties = new StoreCacheProperties();
+    StoreCacheProperties.Spec pageSpec = new StoreCacheProperties.Spec();
+    pageSpec.setMaximumWeight(100L);
+    pageSpec.setExpireAfterAccess(Duration.ofSeconds(30));
+    properties.getSpecs().put("page", pageSpec);
+
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheConfiguration.caffeineCacheManagerCustomizer(properties).customize(cacheManager);
+
+    Cache<Object, Object> pageCache = nativeCache(cacheManager, "page");
+    assertThat(pageCache.policy().eviction().get().isWeighted()).isTrue();
+    assertThat(pageCache.policy().eviction().get().getMaximum()).isEqualTo(100);
+    assertThat(pageCache.policy().expireAfterAccess().get().getExpiresAfter()).isEqualTo(Duration.ofSeconds(30));
+    assertThat(pageCache.policy().isRecordingStats()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should weigh pages by their number of products")
+  void shouldWeighPagesByContentSizeTest() {
+    StoreCacheProperties.Spec spec = new StoreCacheProperties.Spec();
+    spec.setMaximumWeight(100L);
+    Cache<Object, Object> cache = CacheConfiguration.buildCache(spec);
+
+    ProductResponse product = new ProductResponse(1L, "Apple", Money.ofCents(100), 1);
+    cache.put("page", new ProductPage(Collections.nCopies(9, product), 0, 9, 9, 1));
+
+    assertThat(cache.policy().eviction().get().weightedSize().getAsLong()).isEqualTo(10);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Cache<Object, Object> nativeCache(CaffeineCacheManager cacheManager, String cacheName) {
+    return (Cache<Object, Object>) cacheManager.getCache(cacheName).getNativeCache();
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.store.cache;
+
+import com.example.store.dto.ProductPage;
+import com.example.store.service.ProductService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+  @Mock
+  private ProductService productService;
+
+  @Mock
+  private ProductAccessSketch productAccessSketch;
+
+  @Test
+  @DisplayName("Should load the first pages of every sort field and the hot names")
+  void shouldWarmPagesAndHotNamesTest() throws Exception {
+    StoreCacheProperties properties = new StoreCacheProperties();
+    properties.getWarmUp().setEnabled(true);
+    properties.getWarmUp().setPages(3);
+    when(productAccessSketch.hotNames(1000)).thenReturn(List.of("Apple", "Banana"));
+    when(productService.getProducts(any(Pageable.class))).thenAnswer(invocation -> {
+      Pageable pageable = invocation.getArgument(0);
+      boolean hasNext = !pageable.getSort().equals(Sort.by("stock")) || pageable.getPageNumber() == 0;
+      return new ProductPage(List.of(), pageable.getPageNumber(), pageable.getPageSize(), 100, 10, hasNext);
+    });
+
+    new CacheWarmer(productService, productAccessSketch, properties).run(new DefaultApplicationArguments());
+
+    for (int page = 0; page < 3; page++) {
+      verify(productService).getProducts(PageRequest.of(page, 10, Sort.by("name")));
+      verify(productService).getProducts(PageRequest.of(page, 10, Sort.by("price")));
+    }
+    verify(productService).getProducts(PageRequest.of(0, 10, Sort.by("stock")));
+    verify(productService).getProducts(PageRequest.of(1, 10, Sort.by("stock")));
+    verify(productService, times(8)).getProducts(any(Pageable.class));
+    verify(productService).getProductsByName(List.of("Apple", "Banana"));
+  }
+
+  @Test
+  @DisplayName("Should do nothing when warm-up is disabled")
+  void shouldSkipWhenDisabledTest() throws Exception {
+    new CacheWarmer(productService, productAccessSketch, new StoreCacheProperties()).run(new DefaultApplicationArguments());
+
+    verifyNoInteractions(productService, productAccessSketch);
+  }
+}
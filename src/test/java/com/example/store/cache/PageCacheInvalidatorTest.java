@@ -0,0 +1,83 @@
+package com.example.store.cache;
+
+import com.example.store.datasource.ReplicaRoutingProperties;
+import com.example.store.dto.ProductPage;
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageCacheInvalidatorTest {
+
+  private final SingleFlightCacheManager cacheManager = new SingleFlightCacheManager(
+      new ConcurrentMapCacheManager("page"), new StoreCacheProperties(), Runnable::run);
+
+  private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+  private final PageCacheInvalidator invalidator = new PageCacheInvalidator(cacheManager,
+      beanFactory.getBeanProvider(CacheInvalidationBus.class),
+      beanFactory.getBeanProvider(ReplicaRoutingProperties.class));
+
+  @Test
+  @DisplayName("Should patch cached pages and evict pages sorted by stock")
+  void shouldPatchAndEvictPagesTest() {
+    PageableCacheKey byName = PageableCacheKey.of(PageRequest.of(0, 10, Sort.by("name")));
+    PageableCacheKey byStock = PageableCacheKey.of(PageRequest.of(0, 10, Sort.by("stock")));
+    Cache pageCache = cacheManager.getCache("page");
+    pageCache.put(byName, page(product(1L, "Apple", 5)));
+    pageCache.put(byStock, page(product(1L, "Apple", 5)));
+
+    invalidator.onStockChanged(product(1L, "Apple", 3));
+
+    assertThat(pageCache.get(byName, ProductPage.class).getContent().get(0).getStock()).isEqualTo(3);
+    assertThat(pageCache.get(byStock)).isNull();
+  }
+
+  @Test
+  @DisplayName("Should not write back a page that was loaded before a concurrent stock change")
+  void shouldDropPageLoadedBeforeStockChangeTest() throws Exception {
+    PageableCacheKey byName = PageableCacheKey.of(PageRequest.of(0, 10, Sort.by("name")));
+    Cache pageCache = cacheManager.getCache("page");
+    CountDownLatch loaded = new CountDownLatch(1);
+    CountDownLatch changed = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<ProductPage> load = executor.submit(() -> pageCache.get(byName, () -> {
+        ProductPage beforeChange = page(product(1L, "Apple", 5));
+        loaded.countDown();
+        changed.await();
+        return beforeChange;
+      }));
+      assertThat(loaded.await(5, TimeUnit.SECONDS)).isTrue();
+
+      invalidator.onStockChanged(product(1L, "Apple", 3));
+      changed.countDown();
+
+      assertThat(load.get(5, TimeUnit.SECONDS).getContent().get(0).getStock()).isEqualTo(5);
+    }
+
+    assertThat(pageCache.get(byName)).isNull();
+  }
+
+  private static ProductPage page(ProductResponse product) {
+    return new ProductPage(List.of(product), 0, 10, 1, 1);
+  }
+
+  private static ProductResponse product(Long id, String name, int stock) {
+    return new ProductResponse(id, name, Money.ofCents(199), stock);
+  }
+}
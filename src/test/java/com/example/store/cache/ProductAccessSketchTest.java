@@ -0,0 +1,58 @@
+package com.example.store.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductAccessSketchTest {
+
+  @TempDir
+  private Path directory;
+
+  @Test
+  @DisplayName("Should rank the most requested names first and keep only the tracked number")
+  void shouldTrackHottestNamesTest() {
+    ProductAccessSketch sketch = new ProductAccessSketch(properties(2));
+    record(sketch, "Apple", 50);
+    record(sketch, "Banana", 30);
+    for (int i = 0; i < 100; i++) {
+      sketch.record("rare-" + i);
+    }
+    record(sketch, "Cherry", 40);
+
+    assertThat(sketch.hotNames(2)).containsExactly("Apple", "Cherry");
+    assertThat(sketch.estimate("Banana")).isGreaterThanOrEqualTo(30);
+  }
+
+  @Test
+  @DisplayName("Should restore hot names persisted by a previous run")
+  void shouldRestorePersistedNamesTest() throws Exception {
+    ProductAccessSketch previous = new ProductAccessSketch(properties(10));
+    record(previous, "Apple", 5);
+    record(previous, "Äpfel", 9);
+    previous.persist();
+
+    ProductAccessSketch restarted = new ProductAccessSketch(properties(10));
+    restarted.load();
+
+    assertThat(restarted.hotNames(10)).containsExactly("Äpfel", "Apple");
+  }
+
+  private StoreCacheProperties properties(int hotNames) {
+    StoreCacheProperties properties = new StoreCacheProperties();
+    properties.getWarmUp().setEnabled(true);
+    properties.getWarmUp().setHotNames(hotNames);
+    properties.getWarmUp().setSketchPath(directory.resolve("product-access.bin"));
+    return properties;
+  }
+
+  private static void record(ProductAccessSketch sketch, String name, int times) {
+    for (int i = 0; i < times; i++) {
+      sketch.record(name);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.example.store.cache;
+
+import com.example.store.dto.ProductPage;
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedResponseCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final StoreCacheProperties properties = new StoreCacheProperties();
+  private SerializedResponseCache cache;
+
+  @BeforeEach
+  void setup() {
+    properties.getSerialized().setEnabled(true);
+    properties.getSerialized().setGzipMinSize(DataSize.ofBytes(256));
+    cache = new SerializedResponseCache(objectMapper, properties);
+  }
+
+  @Test
+  @DisplayName("Should encode a cached object once and write the same bytes on every hit")
+  void shouldReuseEncodedBytesTest() throws Exception {
+    ProductResponse apple = new ProductResponse(1L, "Apple", Money.parse("1.99"), 5);
+
+    ResponseEntity<byte[]> first = cache.toResponse(ResponseEntity.ok(), "1-0-5", apple, null);
+    ResponseEntity<byte[]> second = cache.toResponse(ResponseEntity.ok(), "1-0-5", apple, null);
+
+    assertThat(second.getBody()).isSameAs(first.getBody());
+    assertThat(objectMapper.readTree(first.getBody())).isEqualTo(objectMapper.readTree(
+        objectMapper.writeValueAsBytes(apple)));
+    assertThat(first.getHeaders().getETag()).isEqualTo("\"1-0-5\"");
+  }
+
+  @Test
+  @DisplayName("Should reuse the bytes for a fresh object with the same tag and encode a changed one")
+  void shouldKeyByETagTest() {
+    ProductResponse apple = new ProductResponse(1L, "Apple", Money.parse("1.99"), 5);
+    ProductResponse reloaded = new ProductResponse(1L, "Apple", Money.parse("1.99"), 5);
+    ProductResponse changed = new ProductResponse(1L, "Apple", Money.parse("1.99"), 4);
+
+    byte[] first = cache.toResponse(ResponseEntity.ok(), "1-0-5", apple, null).getBody();
+    byte[] second = cache.toResponse(ResponseEntity.ok(), "1-0-5", reloaded, null).getBody();
+    byte[] third = cache.toResponse(ResponseEntity.ok(), "1-0-4", changed, null).getBody();
+
+    assertThat(second).isSameAs(first);
+    assertThat(third).isNotEqualTo(first);
+  }
+
+  @Test
+  @DisplayName("Should find the tag of either coding in If-None-Match")
+  void shouldMatchHeldETagTest() {
+    assertThat(SerializedResponseCache.heldETag("1-0-5", "\"1-0-5\"")).isEqualTo("1-0-5");
+    assertThat(SerializedResponseCache.heldETag("1-0-5", "\"x\", W/\"1-0-5-gzip\"")).isEqualTo("1-0-5-gzip");
+    assertThat(SerializedResponseCache.heldETag("1-0-5", "*")).isEqualTo("1-0-5");
+    assertThat(SerializedResponseCache.heldETag("1-0-5", "\"1-0-4\"")).isNull();
+    assertThat(SerializedResponseCache.heldETag("1-0-5", null)).isNull();
+  }
+
+  @Test
+  @DisplayName("Should send the gzip form with its own tag to clients that accept it")
+  void shouldServeGzipTest() throws IOException {
+    ProductPage page = page(20);
+
+    ResponseEntity<byte[]> plain = cache.toResponse(ResponseEntity.ok(), "page-1", page, "identity");
+    ResponseEntity<byte[]> gzipped = cache.toResponse(ResponseEntity.ok(), "page-1", page, "br, gzip;q=0.8");
+
+    assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(gzipped.getHeaders().getETag()).isEqualTo("\"page-1-gzip\"");
+    assertThat(gzipped.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+    try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+      assertThat(input.readAllBytes()).isEqualTo(plain.getBody());
+    }
+    assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+  }
+
+  @Test
+  @DisplayName("Should not compress bodies below the minimum size")
+  void shouldSkipGzipForSmallBodiesTest() {
+    ResponseEntity<byte[]> response = cache.toResponse(ResponseEntity.ok(), "page-1", page(1), "gzip");
+
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+  }
+
+  @Test
+  @DisplayName("Should honour q=0 in Accept-Encoding")
+  void shouldParseAcceptEncodingTest() {
+    assertThat(SerializedResponseCache.acceptsGzip("gzip, deflate")).isTrue();
+    assertThat(SerializedResponseCache.acceptsGzip("*")).isTrue();
+    assertThat(SerializedResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+    assertThat(SerializedResponseCache.acceptsGzip("deflate, br")).isFalse();
+    assertThat(SerializedResponseCache.acceptsGzip(null)).isFalse();
+  }
+
+  private static ProductPage page(int products) {
+    List<ProductResponse> content = new ArrayList<>();
+    for (int i = 0; i < products; i++) {
+      content.add(new ProductResponse((long) i, "product-" + i, Money.ofCents(100 + i), i));
+    }
+    return new ProductPage(content, 0, products, products, 1);
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.store.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightCacheTest {
+
+  @Test
+  @DisplayName("Should call the loader once for concurrent misses on the same key")
+  void shouldCoalesceConcurrentMissesTest() throws Exception {
+    SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("single"), 0, Runnable::run);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        results.add(executor.submit(() -> cache.get("Apple", () -> {
+          loads.incrementAndGet();
+          release.await();
+          return "loaded";
+        })));
+      }
+      TimeUnit.MILLISECONDS.sleep(100);
+      release.countDown();
+
+      for (Future<String> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+      }
+    }
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should serve the cached value and reload it in the background once it is older than the refresh age")
+  void shouldRefreshStaleEntryAheadOfExpiryTest() {
+    AtomicLong nanos = new AtomicLong();
+    CaffeineCache caffeineCache = new CaffeineCache("single", Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .ticker(nanos::get)
+        .build());
+    SingleFlightCache cache = new SingleFlightCache(caffeineCache, Duration.ofMinutes(8).toNanos(), Runnable::run);
+    cache.put("Apple", "old");
+
+    assertThat(cache.get("Apple", () -> "new")).isEqualTo("old");
+    assertThat(cache.get("Apple", String.class)).isEqualTo("old");
+
+    nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+
+    assertThat(cache.get("Apple", () -> "new")).isEqualTo("old");
+    assertThat(cache.get("Apple", String.class)).isEqualTo("new");
+  }
+
+  @Test
+  @DisplayName("Should evict again later, dropping a value reloaded in between")
+  void shouldEvictAgainAfterDelayTest() {
+    List<Runnable> delayed = new ArrayList<>();
+    SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("single"), 0, Runnable::run, delayed::add);
+    cache.put("Apple", "old");
+
+    cache.evict("Apple");
+    // a miss served by a replica that has not seen the write yet
+    assertThat(cache.get("Apple", () -> "stale")).isEqualTo("stale");
+
+    delayed.forEach(Runnable::run);
+
+    assertThat(cache.get("Apple")).isNull();
+    assertThat(cache.get("Apple", () -> "new")).isEqualTo("new");
+  }
+
+  @Test
+  @DisplayName("Should not write back a load that an eviction overtook")
+  void shouldDropLoadOvertakenByEvictionTest() {
+    SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("single"), 0, Runnable::run);
+
+    assertThat(cache.get("Apple", () -> {
+      cache.evict("Apple");
+      return "stale";
+    })).isEqualTo("stale");
+
+    assertThat(cache.get("Apple")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should keep a load whose own key was not evicted")
+  void shouldKeepLoadWhenOtherKeyEvictedTest() {
+    SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("single"), 0, Runnable::run);
+    cache.put("Banana", "banana");
+
+    assertThat(cache.get("Apple", () -> {
+      cache.evict("Banana");
+      return "apple";
+    })).isEqualTo("apple");
+
+    assertThat(cache.get("Apple", String.class)).isEqualTo("apple");
+  }
+
+  @Test
+  @DisplayName("Should undo a write-back when an eviction lands right before the put")
+  void shouldUndoWriteBackRacingEvictionTest() {
+    AtomicReference<SingleFlightCache> cache = new AtomicReference<>();
+    ConcurrentMapCache delegate = new ConcurrentMapCache("single") {
+      @Override
+      public void put(Object key, Object value) {
+        cache.get().evict(key);
+        super.put(key, value);
+      }
+    };
+    cache.set(new SingleFlightCache(delegate, 0, Runnable::run));
+
+    assertThat(cache.get().get("Apple", () -> "stale")).isEqualTo("stale");
+
+    assertThat(delegate.get("Apple")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should shut the refresh executor down with the cache manager")
+  void shouldCloseRefreshExecutorTest() {
+    ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    SingleFlightCacheManager cacheManager = new SingleFlightCacheManager(new ConcurrentMapCacheManager("single"),
+        new StoreCacheProperties(), refreshExecutor);
+
+    cacheManager.destroy();
+
+    assertThat(refreshExecutor.isShutdown()).isTrue();
+  }
+}
@@ -0,0 +1,154 @@
+package com.example.store.cache;
+
+import com.example.store.datasource.ReplicaRoutingProperties;
+import com.example.store.dto.ProductPage;
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoTierCacheTest {
+
+  private final StoreCacheProperties properties = new StoreCacheProperties();
+  private final InMemorySharedCacheBackend shared = new InMemorySharedCacheBackend(properties);
+  private final LocalCacheInvalidationBus bus = new LocalCacheInvalidationBus();
+
+  private TwoTierCacheManager nodeA;
+  private TwoTierCacheManager nodeB;
+
+  @BeforeEach
+  void setup() {
+    properties.getTwoTier().setNearMaxAge(Duration.ofMinutes(1));
+    nodeA = newNode();
+    nodeB = newNode();
+  }
+
+  @Test
+  @DisplayName("Should serve a value cached by one instance from the shared tier on another")
+  void shouldShareValuesBetweenInstancesTest() {
+    ProductResponse apple = product(1L, "Apple", 5);
+    nodeA.getCache("single").put("Apple", apple);
+
+    assertThat(nodeB.getCache("single").get("Apple", ProductResponse.class)).isSameAs(apple);
+  }
+
+  @Test
+  @DisplayName("Should drop the near entry on other instances when one instance evicts")
+  void shouldBroadcastEvictionTest() {
+    nodeA.getCache("single").put("Apple", product(1L, "Apple", 5));
+    Cache nearB = ((TwoTierCache) nodeB.getCache("single")).getNear();
+    nodeB.getCache("single").get("Apple");
+    assertThat(nearB.get("Apple")).isNotNull();
+
+    nodeA.getCache("single").evict("Apple");
+
+    assertThat(nearB.get("Apple")).isNull();
+    assertThat(nodeB.getCache("single").get("Apple")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should keep a near entry that is newer than a late eviction message")
+  void shouldIgnoreOutdatedEvictionTest() {
+    long staleVersion = shared.evict("single", "Apple");
+    nodeB.getCache("single").put("Apple", product(1L, "Apple", 7));
+
+    bus.publish(new CacheInvalidation.Evict(nodeA.getOrigin(), "single", "Apple", staleVersion));
+
+    assertThat(nodeB.getCache("single").get("Apple", ProductResponse.class).getStock()).isEqualTo(7);
+  }
+
+  @Test
+  @DisplayName("Should revalidate near entries older than the near max age against the shared tier")
+  void shouldBoundStaleReadsByNearMaxAgeTest() {
+    properties.getTwoTier().setNearMaxAge(Duration.ZERO);
+    TwoTierCacheManager node = newNode();
+    node.getCache("single").put("Apple", product(1L, "Apple", 5));
+
+    // a change whose broadcast never arrived
+    shared.put("single", "Apple", product(1L, "Apple", 2));
+
+    assertThat(node.getCache("single").get("Apple", ProductResponse.class).getStock()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should keep pages local but clear them on every instance")
+  void shouldBroadcastPageClearTest() {
+    PageableCacheKey key = PageableCacheKey.of(PageRequest.of(0, 10, Sort.by("name")));
+    ProductPage page = new ProductPage(List.of(product(1L, "Apple", 5)), 0, 10, 1, 1);
+    nodeA.getCache("page").put(key, page);
+    nodeB.getCache("page").put(key, page);
+
+    nodeA.getCache("page").clear();
+
+    assertThat(nodeB.getCache("page").get(key)).isNull();
+  }
+
+  @Test
+  @DisplayName("Should patch pages on other instances when stock changes")
+  void shouldBroadcastStockChangeToPagesTest() {
+    PageableCacheKey key = PageableCacheKey.of(PageRequest.of(0, 10, Sort.by("name")));
+    nodeB.getCache("page").put(key, new ProductPage(List.of(product(1L, "Apple", 5)), 0, 10, 1, 1));
+    PageCacheInvalidator invalidatorA = new PageCacheInvalidator(nodeA, beanProvider(), routingProvider(null));
+    new PageCacheInvalidator(nodeB, beanProvider(), routingProvider(null));
+
+    invalidatorA.onStockChanged(product(1L, "Apple", 3));
+
+    ProductPage patched = nodeB.getCache("page").get(key, ProductPage.class);
+    assertThat(patched.getContent().get(0).getStock()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Should drop pages with the changed product again once the sticky window has passed")
+  void shouldEvictPatchedPagesAfterStickyWindowTest() throws Exception {
+    PageableCacheKey byName = PageableCacheKey.of(PageRequest.of(0, 10, Sort.by("name")));
+    PageableCacheKey byPrice = PageableCacheKey.of(PageRequest.of(0, 10, Sort.by("price")));
+    ReplicaRoutingProperties routing = new ReplicaRoutingProperties();
+    routing.setStickyWindow(Duration.ofMillis(10));
+    PageCacheInvalidator invalidator = new PageCacheInvalidator(nodeA, beanProvider(), routingProvider(routing));
+    nodeA.getCache("page").put(byName, new ProductPage(List.of(product(1L, "Apple", 5)), 0, 10, 1, 1));
+    nodeA.getCache("page").put(byPrice, new ProductPage(List.of(product(2L, "Banana", 5)), 0, 10, 1, 1));
+
+    invalidator.onStockChanged(product(1L, "Apple", 3));
+    assertThat(nodeA.getCache("page").get(byName, ProductPage.class).getContent().get(0).getStock()).isEqualTo(3);
+    TimeUnit.MILLISECONDS.sleep(500);
+
+    assertThat(nodeA.getCache("page").get(byName)).isNull();
+    assertThat(nodeA.getCache("page").get(byPrice)).isNotNull();
+  }
+
+  private TwoTierCacheManager newNode() {
+    return new TwoTierCacheManager(new ConcurrentMapCacheManager("single", "page"), shared, bus,
+        properties.getTwoTier());
+  }
+
+  private ObjectProvider<CacheInvalidationBus> beanProvider() {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("cacheInvalidationBus", bus);
+    return beanFactory.getBeanProvider(CacheInvalidationBus.class);
+  }
+
+  private static ObjectProvider<ReplicaRoutingProperties> routingProvider(ReplicaRoutingProperties routing) {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    if (routing != null) {
+      beanFactory.addBean("replicaRoutingProperties", routing);
+    }
+    return beanFactory.getBeanProvider(ReplicaRoutingProperties.class);
+  }
+
+  private static ProductResponse product(Long id, String name, int stock) {
+    return new ProductResponse(id, name, Money.ofCents(199), stock);
+  }
+}
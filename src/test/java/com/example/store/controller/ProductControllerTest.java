@@ -1,8 +1,11 @@
 package com.example.store.controller;
 
 import com.example.store.exception.ResourceNotFoundException;
+import com.example.store.model.Money;
 import com.example.store.model.Product;
 import com.example.store.repository.ProductRepository;
+import com.example.store.service.ProductExportService;
+import com.example.store.service.ProductFilter;
 import com.example.store.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
@@ -15,14 +18,22 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -50,6 +61,17 @@ class ProductControllerTest {
   @Autowired
   private ProductController productController;
 
+  @Autowired
+  private ProductExportService productExportService;
+
+  private String readName(String json) {
+    try {
+      return objectMapper.readTree(json).get("name").asText();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
   @Nested
   class POST_addProduct {
     @Test
@@ -57,7 +79,7 @@ class ProductControllerTest {
     void createProductTest() throws Exception {
       Product product = new Product();
       product.setName("Banana");
-      product.setPrice(BigDecimal.valueOf(1.99));
+      product.setPrice(Money.parse("1.99"));
       product.setStock(10);
       String json = objectMapper.writeValueAsString(product);
 
@@ -68,10 +90,24 @@ class ProductControllerTest {
           .andExpect(status().isOk())
           .andExpect(content().contentType(MediaType.APPLICATION_JSON))
           .andExpect(jsonPath("$.name").value(product.getName()))
-          .andExpect(jsonPath("$.price").value(product.getPrice()))
+          .andExpect(jsonPath("$.price").value(product.getPrice().toBigDecimal()))
           .andExpect(jsonPath("$.stock").value(product.getStock()));
     }
 
+    @Test
+    @DisplayName("Should return Conflict when product name already exists")
+    void createDuplicateProductTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Cherry").price(Money.parse("4.99")).stock(1).build());
+      String json = objectMapper.writeValueAsString(
+          new Product.ProductBuilder().name("Cherry").price(Money.parse("5.99")).stock(2).build());
+
+      mockMvc.perform(post("/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content(json))
+          .andExpect(status().isConflict());
+    }
+
     @ParameterizedTest(name = "Should return Bad Request when {1}")
     @MethodSource("invalidProductGenerator")
     void shouldReturnExceptionForInvalidProductTest(String message, Product product) throws Exception{
@@ -86,23 +122,116 @@ class ProductControllerTest {
 
     public static Stream<Arguments> invalidProductGenerator() {
       return Stream.of(
-          Arguments.of("name is null", new Product.ProductBuilder().name(null).price(BigDecimal.TEN).stock(10).build()),
-          Arguments.of("name is empty", new Product.ProductBuilder().name("").price(BigDecimal.TEN).stock(10).build()),
-          Arguments.of("name is blank", new Product.ProductBuilder().name(" ").price(BigDecimal.TEN).stock(10).build()),
-          Arguments.of("price is negative", new Product.ProductBuilder().name("potato").price(BigDecimal.valueOf(-10L)).stock(10).build()),
+          Arguments.of("name is null", new Product.ProductBuilder().name(null).price(Money.ofCents(1000)).stock(10).build()),
+          Arguments.of("name is empty", new Product.ProductBuilder().name("").price(Money.ofCents(1000)).stock(10).build()),
+          Arguments.of("name is blank", new Product.ProductBuilder().name(" ").price(Money.ofCents(1000)).stock(10).build()),
+          Arguments.of("price is negative", new Product.ProductBuilder().name("potato").price(Money.ofCents(-1000)).stock(10).build()),
           Arguments.of("price is null", new Product.ProductBuilder().name("potato").price(null).stock(10).build()),
-          Arguments.of("stock is negative", new Product.ProductBuilder().name("potato").price(BigDecimal.TEN).stock(-10).build())
+          Arguments.of("stock is negative", new Product.ProductBuilder().name("potato").price(Money.ofCents(1000)).stock(-10).build())
       );
     }
   }
 
+  @Nested
+  class POST_bulkAddProducts {
+    @Test
+    @DisplayName("Should import a JSON array and report invalid items")
+    void bulkImportJsonArrayTest() throws Exception {
+      String json = """
+          [
+            {"name": "Plum", "price": 0.79, "stock": 40},
+            {"name": "Pear", "price": -1, "stock": 10},
+            {"name": "Peach", "price": 1.29, "stock": 12}
+          ]
+          """;
+
+      mockMvc.perform(post("/products/_bulk")
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content(json))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.received").value(3))
+          .andExpect(jsonPath("$.imported").value(2))
+          .andExpect(jsonPath("$.errors.length()").value(1))
+          .andExpect(jsonPath("$.errors[0].index").value(1))
+          .andExpect(jsonPath("$.errors[0].name").value("Pear"));
+
+      assertThat(productRepository.findByName("Plum")).isPresent();
+      assertThat(productRepository.findByName("Peach")).isPresent();
+      assertThat(productRepository.findByName("Pear")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should import an NDJSON stream")
+    void bulkImportNdjsonTest() throws Exception {
+      String ndjson = """
+          {"name": "Lime", "price": 0.35, "stock": 100}
+          {"name": "Lemon", "price": 0.45, "stock": 80}
+          """;
+
+      mockMvc.perform(post("/products/_bulk")
+              .contentType(MediaType.APPLICATION_NDJSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content(ndjson))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.received").value(2))
+          .andExpect(jsonPath("$.imported").value(2))
+          .andExpect(jsonPath("$.errors").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report an item of the wrong type and import the others")
+    void bulkImportUnmappableItemTest() throws Exception {
+      String json = """
+          [
+            {"name": "Kiwi", "price": 0.59, "stock": 30},
+            {"name": "Mango", "price": "cheap", "stock": 5},
+            {"name": "Papaya", "price": 2.49, "stock": 8}
+          ]
+          """;
+
+      mockMvc.perform(post("/products/_bulk")
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content(json))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.received").value(3))
+          .andExpect(jsonPath("$.imported").value(2))
+          .andExpect(jsonPath("$.errors.length()").value(1))
+          .andExpect(jsonPath("$.errors[0].index").value(1));
+
+      assertThat(productRepository.findByName("Kiwi")).isPresent();
+      assertThat(productRepository.findByName("Papaya")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should import the items before a malformed one and report it")
+    void bulkImportMalformedTest() throws Exception {
+      String ndjson = """
+          {"name": "Lime", "price": 0.35, "stock": 100}
+          {"name": "Lemon",           """;
+
+      mockMvc.perform(post("/products/_bulk")
+              .contentType(MediaType.APPLICATION_NDJSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content(ndjson))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.received").value(2))
+          .andExpect(jsonPath("$.imported").value(1))
+          .andExpect(jsonPath("$.errors[0].index").value(1))
+          .andExpect(jsonPath("$.errors[0].message").value("Malformed product payload"));
+
+      assertThat(productRepository.findByName("Lime")).isPresent();
+    }
+  }
+
   @Nested
   class GET_pageableProduct {
     @Test
     @DisplayName("Should return paginated and sorted products")
     void getPageableProductsTest() throws Exception {
-      productRepository.save(new Product.ProductBuilder().name("Banana").price(BigDecimal.valueOf(0.99)).stock(10).build());
-      productRepository.save(new Product.ProductBuilder().name("Apple").price(BigDecimal.valueOf(1.99)).stock(50).build());
+      productRepository.save(new Product.ProductBuilder().name("Banana").price(Money.parse("0.99")).stock(10).build());
+      productRepository.save(new Product.ProductBuilder().name("Apple").price(Money.parse("1.99")).stock(50).build());
 
       mockMvc.perform(get("/products")
               .param("page", "0")
@@ -118,6 +247,34 @@ class ProductControllerTest {
           .andExpect(jsonPath("$.totalPages").value(1));
     }
 
+    @Test
+    @DisplayName("Should filter pages by price range and stock")
+    void getFilteredProductsTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Radish").price(Money.parse("0.59")).stock(30).build());
+      productRepository.save(new Product.ProductBuilder().name("Leek").price(Money.parse("1.49")).stock(0).build());
+      productRepository.save(new Product.ProductBuilder().name("Fennel").price(Money.parse("1.89")).stock(4).build());
+      productRepository.save(new Product.ProductBuilder().name("Truffle").price(Money.parse("49.00")).stock(2).build());
+
+      mockMvc.perform(get("/products")
+              .param("minPrice", "0.50")
+              .param("maxPrice", "20")
+              .param("inStock", "true")
+              .param("sort", "price,desc")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content.length()").value(2))
+          .andExpect(jsonPath("$.content[0].name").value("Fennel"))
+          .andExpect(jsonPath("$.content[1].name").value("Radish"))
+          .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request when minPrice is greater than maxPrice")
+    void getFilteredProducts_InvalidRange() throws Exception {
+      mockMvc.perform(get("/products").param("minPrice", "5").param("maxPrice", "1"))
+          .andExpect(status().isBadRequest());
+    }
+
     @ParameterizedTest(name = "Should return IllegalArgumentException when {0}")
     @MethodSource("invalidPageableGenerator")
     void invalidPageableParameters(String testName, String page, String size, String sort,
@@ -146,8 +303,8 @@ class ProductControllerTest {
     @MethodSource("handledInvalidPageableGenerator")
     void handleInvalidPageableParameters(String testName, String page, String size, String sort,
         String errorMessage) throws Exception {
-      productRepository.save(new Product.ProductBuilder().name("Banana").price(BigDecimal.valueOf(0.99)).stock(100).build());
-      productRepository.save(new Product.ProductBuilder().name("Apple").price(BigDecimal.valueOf(1.99)).stock(50).build());
+      productRepository.save(new Product.ProductBuilder().name("Banana").price(Money.parse("0.99")).stock(100).build());
+      productRepository.save(new Product.ProductBuilder().name("Apple").price(Money.parse("1.99")).stock(50).build());
 
       mockMvc.perform(get("/products")
               .param("page", page)
@@ -174,6 +331,175 @@ class ProductControllerTest {
     }
   }
 
+  @Nested
+  class POST_multiGetProducts {
+    @Test
+    @DisplayName("Should return products in request order and mark missing names")
+    void multiGetTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Fig").price(Money.parse("0.89")).stock(7).build());
+      productRepository.save(new Product.ProductBuilder().name("Date").price(Money.parse("0.59")).stock(9).build());
+
+      mockMvc.perform(post("/products/_mget")
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content("[\"Date\", \"Missing\", \"Fig\"]"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(3))
+          .andExpect(jsonPath("$[0].name").value("Date"))
+          .andExpect(jsonPath("$[0].found").value(true))
+          .andExpect(jsonPath("$[0].product.stock").value(9))
+          .andExpect(jsonPath("$[1].name").value("Missing"))
+          .andExpect(jsonPath("$[1].found").value(false))
+          .andExpect(jsonPath("$[2].name").value("Fig"))
+          .andExpect(jsonPath("$[2].product.stock").value(7));
+    }
+  }
+
+  @Nested
+  class GET_exportProducts {
+    @Test
+    @DisplayName("Should stream the catalog as CSV")
+    void exportCsvTest() throws Exception {
+      MvcResult result = mockMvc.perform(get("/products/export").param("format", "csv"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith("text/csv"))
+          .andExpect(content().string(startsWith("id,name,price,stock\n")));
+    }
+
+    @Test
+    @DisplayName("Should stream the sorted and filtered listing as NDJSON")
+    void streamListingTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Walnut").price(Money.parse("3.10")).stock(9).build());
+      productRepository.save(new Product.ProductBuilder().name("Almond").price(Money.parse("2.70")).stock(0).build());
+      productRepository.save(new Product.ProductBuilder().name("Cashew").price(Money.parse("4.40")).stock(3).build());
+
+      MvcResult result = mockMvc.perform(get("/products/_stream").param("sort", "price,desc").param("inStock", "true")
+              .accept(MediaType.APPLICATION_NDJSON))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+      // the async dispatch runs outside the test transaction, so the rows are checked on this thread
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      productExportService.streamListing(Sort.by(Sort.Direction.DESC, "price"),
+          ProductFilter.of(null, null, true, null), output);
+      List<String> names = output.toString(StandardCharsets.UTF_8).lines()
+          .map(ProductControllerTest.this::readName)
+          .toList();
+      assertThat(names).containsSubsequence("Cashew", "Walnut").doesNotContain("Almond");
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request for an invalid sort field on the NDJSON listing")
+    void streamListingInvalidSortTest() throws Exception {
+      mockMvc.perform(get("/products/_stream").param("sort", "color").accept(MediaType.APPLICATION_NDJSON))
+          .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request for unknown export format")
+    void exportInvalidFormatTest() throws Exception {
+      mockMvc.perform(get("/products/export").param("format", "xml"))
+          .andExpect(status().isBadRequest());
+    }
+  }
+
+  @Nested
+  class GET_keysetProducts {
+    @Test
+    @DisplayName("Should walk all products with cursors, breaking ties by id")
+    void getProductsAfterCursorTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Banana").price(Money.parse("0.99")).stock(10).build());
+      productRepository.save(new Product.ProductBuilder().name("Apple").price(Money.parse("0.99")).stock(50).build());
+      productRepository.save(new Product.ProductBuilder().name("Cherry").price(Money.parse("4.99")).stock(5).build());
+
+      String response = mockMvc.perform(get("/products")
+              .param("after", "")
+              .param("size", "2")
+              .param("sort", "price,asc")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content.length()").value(2))
+          .andExpect(jsonPath("$.content[0].name").value("Banana"))
+          .andExpect(jsonPath("$.content[1].name").value("Apple"))
+          .andExpect(jsonPath("$.size").value(2))
+          .andExpect(jsonPath("$.hasNext").value(true))
+          .andReturn().getResponse().getContentAsString();
+      String nextCursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+      mockMvc.perform(get("/products")
+              .param("after", nextCursor)
+              .param("size", "2")
+              .param("sort", "price,asc")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content.length()").value(1))
+          .andExpect(jsonPath("$.content[0].name").value("Cherry"))
+          .andExpect(jsonPath("$.hasNext").value(false))
+          .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should apply the filter to every page of the cursor walk")
+    void getProductsAfterFilteredTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Banana").price(Money.parse("0.99")).stock(10).build());
+      productRepository.save(new Product.ProductBuilder().name("Apple").price(Money.parse("1.99")).stock(0).build());
+      productRepository.save(new Product.ProductBuilder().name("Cherry").price(Money.parse("4.99")).stock(5).build());
+      productRepository.save(new Product.ProductBuilder().name("Damson").price(Money.parse("5.99")).stock(0).build());
+
+      String response = mockMvc.perform(get("/products")
+              .param("after", "")
+              .param("size", "1")
+              .param("sort", "price,asc")
+              .param("inStock", "true")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content.length()").value(1))
+          .andExpect(jsonPath("$.content[0].name").value("Banana"))
+          .andExpect(jsonPath("$.hasNext").value(true))
+          .andReturn().getResponse().getContentAsString();
+      String nextCursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+      mockMvc.perform(get("/products")
+              .param("after", nextCursor)
+              .param("size", "1")
+              .param("sort", "price,asc")
+              .param("inStock", "true")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content.length()").value(1))
+          .andExpect(jsonPath("$.content[0].name").value("Cherry"))
+          .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @ParameterizedTest(name = "Should return Bad Request when {0}")
+    @MethodSource("invalidKeysetGenerator")
+    void invalidKeysetParameters(String testName, String after, String size, String sort, String errorMessage)
+        throws Exception {
+      mockMvc.perform(get("/products")
+              .param("after", after)
+              .param("size", size)
+              .param("sort", sort)
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isBadRequest())
+          .andExpect(result -> assertEquals(errorMessage, result.getResolvedException().getMessage()));
+    }
+
+    public static Stream<Arguments> invalidKeysetGenerator() {
+      return Stream.of(
+          Arguments.of("cursor is malformed", "not-a-cursor", "10", "name,asc", "Invalid cursor"),
+          Arguments.of("sort has invalid sort field", "", "10", "invalidField,asc", "Invalid sort field: invalidField"),
+          Arguments.of("size is 0", "", "0", "name,asc", "Page size must be between 1 and 2000")
+      );
+    }
+  }
+
   @Nested
   class PATCH_updateProduct {
 
@@ -182,7 +508,7 @@ class ProductControllerTest {
     void createProductTest() throws Exception {
       Product cached = new Product.ProductBuilder()
           .name("car")
-          .price(BigDecimal.valueOf(5.99))
+          .price(Money.parse("5.99"))
           .stock(3)
           .build();
 
@@ -194,7 +520,7 @@ class ProductControllerTest {
           .andExpect(status().isOk())
           .andExpect(content().contentType(MediaType.APPLICATION_JSON))
           .andExpect(jsonPath("$.name").value(cached.getName()))
-          .andExpect(jsonPath("$.price").value(cached.getPrice()))
+          .andExpect(jsonPath("$.price").value(cached.getPrice().toBigDecimal()))
           .andExpect(jsonPath("$.stock").value(14));
     }
 
@@ -219,4 +545,136 @@ class ProductControllerTest {
           .andExpect(status().isNotFound());
     }
   }
-}
\ No newline at end of file
+
+  @Nested
+  class PATCH_adjustStock {
+
+    @Test
+    @DisplayName("Should apply signed delta to stock")
+    void adjustStockTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Kiwi").price(Money.parse("0.49")).stock(10).build());
+
+      mockMvc.perform(patch("/products/Kiwi/stock/delta")
+              .param("delta", "-4")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.name").value("Kiwi"))
+          .andExpect(jsonPath("$.stock").value(6));
+
+      mockMvc.perform(patch("/products/Kiwi/stock/delta")
+              .param("delta", "5")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.stock").value(11));
+    }
+
+    @Test
+    @DisplayName("Should return Conflict when stock would go negative")
+    void adjustStock_InsufficientStock() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Mango").price(Money.parse("2.49")).stock(2).build());
+
+      mockMvc.perform(patch("/products/Mango/stock/delta")
+              .param("delta", "-3")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isConflict());
+
+      assertThat(productRepository.findByName("Mango")).get()
+          .extracting(Product::getStock)
+          .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request when stock would overflow")
+    void adjustStock_Overflow() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Papaya").price(Money.parse("3.49")).stock(2).build());
+
+      mockMvc.perform(patch("/products/Papaya/stock/delta")
+              .param("delta", String.valueOf(Integer.MAX_VALUE))
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isBadRequest());
+
+      assertThat(productRepository.findByName("Papaya")).get()
+          .extracting(Product::getStock)
+          .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should return Not Found for unknown product")
+    void adjustStock_ProductNotFound() throws Exception {
+      mockMvc.perform(patch("/products/non-existent/stock/delta")
+              .param("delta", "1")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isNotFound());
+    }
+  }
+
+  @Nested
+  class GET_conditionalRequests {
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with Not Modified until the product changes")
+    void productETagTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Fig").price(Money.parse("0.89")).stock(7).build());
+
+      String eTag = mockMvc.perform(get("/products/Fig").accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(header().string("Cache-Control", "no-cache, public"))
+          .andExpect(jsonPath("$.version").doesNotExist())
+          .andReturn().getResponse().getHeader("ETag");
+      assertThat(eTag).isNotBlank();
+
+      mockMvc.perform(get("/products/Fig").header("If-None-Match", eTag))
+          .andExpect(status().isNotModified())
+          .andExpect(content().string(""));
+
+      mockMvc.perform(patch("/products/Fig/stock").param("stock", "8"))
+          .andExpect(status().isOk());
+
+      mockMvc.perform(get("/products/Fig").header("If-None-Match", eTag))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.stock").value(8))
+          .andExpect(header().string("ETag", not(eTag)));
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match on a page with Not Modified")
+    void pageETagTest() throws Exception {
+      productRepository.save(new Product.ProductBuilder().name("Grape").price(Money.parse("2.10")).stock(4).build());
+
+      String eTag = mockMvc.perform(get("/products").param("size", "5").param("sort", "price,desc"))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getHeader("ETag");
+      assertThat(eTag).startsWith("\"page-");
+
+      mockMvc.perform(get("/products").param("size", "5").param("sort", "price,desc")
+              .header("If-None-Match", eTag))
+          .andExpect(status().isNotModified());
+    }
+  }
+
+  @Nested
+  class GET_searchProducts {
+
+    @Test
+    @DisplayName("Should find added products by keyword and prefix")
+    void searchProductsTest() throws Exception {
+      mockMvc.perform(post("/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"name\": \"Quince Jelly\", \"price\": 3.20, \"stock\": 6}"))
+          .andExpect(status().isOk());
+
+      mockMvc.perform(get("/products/search").param("q", "jelly quin").accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(1))
+          .andExpect(jsonPath("$[0].name").value("Quince Jelly"))
+          .andExpect(jsonPath("$[0].stock").value(6));
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request for a limit out of range")
+    void searchProducts_InvalidLimit() throws Exception {
+      mockMvc.perform(get("/products/search").param("q", "a").param("limit", "0"))
+          .andExpect(status().isBadRequest());
+    }
+  }
+}
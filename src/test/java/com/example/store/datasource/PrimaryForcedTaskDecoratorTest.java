@@ -0,0 +1,44 @@
+package com.example.store.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrimaryForcedTaskDecoratorTest {
+
+  private final PrimaryForcedTaskDecorator decorator = new PrimaryForcedTaskDecorator();
+
+  @AfterEach
+  void cleanup() {
+    ReplicaRoutingDataSource.setPrimaryForced(false);
+  }
+
+  @Test
+  @DisplayName("Should force the primary on the executor thread when the submitting thread did")
+  void shouldPropagatePrimaryForcedTest() throws Exception {
+    ReplicaRoutingDataSource.setPrimaryForced(true);
+    Runnable task = decorator.decorate(() -> assertThat(ReplicaRoutingDataSource.isPrimaryForced()).isTrue());
+    ReplicaRoutingDataSource.setPrimaryForced(false);
+
+    try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+      executor.submit(task).get(5, TimeUnit.SECONDS);
+      executor.submit(() -> assertThat(ReplicaRoutingDataSource.isPrimaryForced()).isFalse()).get(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  @DisplayName("Should not force the primary on the executor thread when the submitting thread did not")
+  void shouldNotForcePrimaryTest() throws Exception {
+    Runnable task = decorator.decorate(() -> assertThat(ReplicaRoutingDataSource.isPrimaryForced()).isFalse());
+
+    try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+      executor.submit(task).get(5, TimeUnit.SECONDS);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.store.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+  private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+  private final ReadYourWritesFilter filter =
+      new ReadYourWritesFilter(Duration.ofSeconds(2), Clock.fixed(NOW, ZoneOffset.UTC));
+
+  @Test
+  @DisplayName("Should hand out a sticky cookie on writes and read from the primary while it is valid")
+  void shouldStickAfterWriteTest() throws Exception {
+    MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+    assertThat(run(new MockHttpServletRequest("PATCH", "/products/Apple/stock"), writeResponse)).isTrue();
+    Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    assertThat(cookie).isNotNull();
+    assertThat(cookie.getValue()).isEqualTo(Long.toString(NOW.toEpochMilli() + 2000));
+
+    MockHttpServletRequest read = new MockHttpServletRequest("GET", "/products/Apple");
+    read.setCookies(cookie);
+    assertThat(run(read, new MockHttpServletResponse())).isTrue();
+    assertThat(ReplicaRoutingDataSource.isPrimaryForced()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should leave reads without a valid cookie to the replicas")
+  void shouldNotStickWithoutCookieTest() throws Exception {
+    assertThat(run(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse())).isFalse();
+
+    MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/products");
+    expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW.toEpochMilli() - 1)));
+    assertThat(run(expired, new MockHttpServletResponse())).isFalse();
+
+    MockHttpServletRequest malformed = new MockHttpServletRequest("GET", "/products");
+    malformed.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "soon"));
+    assertThat(run(malformed, new MockHttpServletResponse())).isFalse();
+  }
+
+  // returns whether the primary was forced while the request was handled
+  private boolean run(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+    AtomicBoolean forced = new AtomicBoolean();
+    filter.doFilter(request, response, (req, res) -> forced.set(ReplicaRoutingDataSource.isPrimaryForced()));
+    return forced.get();
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.store.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+  private ReplicaRoutingDataSource routingDataSource;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readWrite;
+  private TransactionTemplate readOnly;
+
+  // two in-memory H2 databases stand in for the primary and a replica; each knows its own role
+  @BeforeEach
+  void setup() {
+    routingDataSource = new ReplicaRoutingDataSource(database("primary"), List.of(database("replica")));
+    routingDataSource.afterPropertiesSet();
+    DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @AfterEach
+  void cleanup() {
+    ReplicaRoutingDataSource.setPrimaryForced(false);
+  }
+
+  @Test
+  @DisplayName("Should read from the replica in read-only transactions")
+  void shouldRouteReadOnlyTransactionsToReplicaTest() {
+    assertThat(readOnly.execute(status -> role())).isEqualTo("replica");
+  }
+
+  @Test
+  @DisplayName("Should use the primary for writing transactions and outside transactions")
+  void shouldRouteWritesToPrimaryTest() {
+    assertThat(readWrite.execute(status -> role())).isEqualTo("primary");
+    assertThat(role()).isEqualTo("primary");
+  }
+
+  @Test
+  @DisplayName("Should read from the primary while the thread is sticky after a write")
+  void shouldStickToPrimaryTest() {
+    ReplicaRoutingDataSource.setPrimaryForced(true);
+
+    assertThat(readOnly.execute(status -> role())).isEqualTo("primary");
+  }
+
+  @Test
+  @DisplayName("Should fall back to the primary without replicas")
+  void shouldUsePrimaryWithoutReplicasTest() {
+    ReplicaRoutingDataSource primaryOnly = new ReplicaRoutingDataSource(database("primary"), List.of());
+    primaryOnly.afterPropertiesSet();
+    DataSource dataSource = new LazyConnectionDataSourceProxy(primaryOnly);
+    TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    transactionTemplate.setReadOnly(true);
+
+    assertThat(transactionTemplate.execute(status -> new JdbcTemplate(dataSource)
+        .queryForObject("select role from node", String.class))).isEqualTo("primary");
+  }
+
+  private String role() {
+    return jdbcTemplate.queryForObject("select role from node", String.class);
+  }
+
+  private static DataSource database(String role) {
+    DataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + role + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("create table node (role varchar(16))");
+    jdbcTemplate.update("insert into node (role) values (?)", role);
+    return dataSource;
+  }
+}
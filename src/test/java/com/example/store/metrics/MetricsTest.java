@@ -0,0 +1,56 @@
+package com.example.store.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "management.endpoints.web.exposure.include=prometheus",
+    "spring.cache.cache-names=single,page"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  @DisplayName("Should expose endpoint, repository, statement and cache metrics in Prometheus format")
+  void shouldExposePrometheusMetricsTest() throws Exception {
+    mockMvc.perform(get("/products")).andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("http_server_requests_seconds_count{")))
+        .andExpect(content().string(containsString("uri=\"/products\"")))
+        .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count{")))
+        .andExpect(content().string(containsString("store_hibernate_statements_count{")))
+        .andExpect(content().string(containsString("cache=\"page\"")))
+        .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_count{")));
+  }
+
+  @Test
+  @DisplayName("Should not record statements for streamed responses that run on another thread")
+  void shouldSkipStreamedResponseTest() throws Exception {
+    mockMvc.perform(get("/products")).andExpect(status().isOk());
+    mockMvc.perform(get("/products/export")).andExpect(status().isOk());
+
+    assertThat(meterRegistry.find("store.hibernate.statements").tag("uri", "/products").summary()).isNotNull();
+    assertThat(meterRegistry.find("store.hibernate.statements").tag("uri", "/products/export").summary()).isNull();
+  }
+}
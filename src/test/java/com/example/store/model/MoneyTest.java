@@ -0,0 +1,44 @@
+package com.example.store.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @ParameterizedTest(name = "{0} cents is {1}")
+  @CsvSource({"199, 1.99", "5, 0.05", "1000, 10.00", "0, 0.00", "-1, -0.01", "-1050, -10.50",
+      "-9223372036854775808, -92233720368547758.08"})
+  void shouldFormatCentsAsPlainDecimalTest(long cents, String expected) throws Exception {
+    Money money = Money.ofCents(cents);
+
+    assertThat(money).hasToString(expected);
+    assertThat(objectMapper.writeValueAsString(money)).isEqualTo(expected);
+    assertThat(objectMapper.readValue(expected, Money.class)).isEqualTo(money);
+  }
+
+  @Test
+  @DisplayName("Should convert exact amounts and reject more than two decimal places")
+  void shouldRejectInexactAmountsTest() {
+    assertThat(Money.of(new BigDecimal("12.3")).getCents()).isEqualTo(1230);
+    assertThat(Money.of(new BigDecimal("12.300")).getCents()).isEqualTo(1230);
+
+    assertThatThrownBy(() -> Money.of(new BigDecimal("12.345"))).isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  @DisplayName("Should order amounts by their value in cents")
+  void shouldCompareByCentsTest() {
+    assertThat(Money.parse("0.99")).isLessThan(Money.parse("1.00"));
+    assertThat(Money.parse("-1")).isLessThan(Money.ofCents(0));
+  }
+}
@@ -1,14 +1,19 @@
 package com.example.store.repository;
 
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
 import com.example.store.model.Product;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 class ProductRepositoryTest {
@@ -21,7 +26,7 @@ class ProductRepositoryTest {
   void shouldSaveProductTest() {
     Product expected = new Product.ProductBuilder()
         .name("Banana")
-        .price(BigDecimal.valueOf(0.99))
+        .price(Money.parse("0.99"))
         .stock(100)
         .build();
 
@@ -31,4 +36,29 @@ class ProductRepositoryTest {
         .usingRecursiveComparison()
         .isEqualTo(expected);
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("Should reject a second Product with the same name")
+  void shouldRejectDuplicateNameTest() {
+    productRepository.saveAndFlush(new Product.ProductBuilder().name("Banana").price(Money.ofCents(100)).stock(1).build());
+
+    assertThatThrownBy(() -> productRepository.saveAndFlush(
+        new Product.ProductBuilder().name("Banana").price(Money.ofCents(1000)).stock(2).build()))
+        .isInstanceOf(DataIntegrityViolationException.class);
+  }
+
+  @Test
+  @DisplayName("Should stream all products as responses ordered by id")
+  void shouldStreamAllProductsTest() {
+    Product banana = productRepository.save(new Product.ProductBuilder().name("Banana").price(Money.ofCents(100)).stock(1).build());
+    Product apple = productRepository.save(new Product.ProductBuilder().name("Apple").price(Money.ofCents(1000)).stock(2).build());
+
+    List<ProductResponse> products;
+    try (Stream<ProductResponse> stream = productRepository.streamAll()) {
+      products = stream.toList();
+    }
+
+    assertThat(products).extracting(ProductResponse::getId).containsExactly(banana.getId(), apple.getId());
+    assertThat(products).extracting(ProductResponse::getName).containsExactly("Banana", "Apple");
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.store.search;
+
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+  private ProductSearchIndex index;
+
+  @BeforeEach
+  void setup() {
+    index = new ProductSearchIndex(null, null, true);
+    add(1L, "Green Apple");
+    add(2L, "Apple Juice");
+    add(3L, "Applesauce");
+    add(4L, "Pineapple Juice");
+    add(5L, "Orange juice, fresh");
+  }
+
+  @Test
+  @DisplayName("Should complete the last word as a prefix and rank whole words and leading matches first")
+  void shouldRankPrefixMatchesTest() {
+    assertThat(index.search("app", 10)).containsExactly("Applesauce", "Apple Juice", "Green Apple");
+    assertThat(index.search("apple", 10)).containsExactly("Apple Juice", "Green Apple", "Applesauce");
+  }
+
+  @Test
+  @DisplayName("Should require every earlier word to match exactly")
+  void shouldIntersectKeywordsTest() {
+    assertThat(index.search("juice app", 10)).containsExactly("Apple Juice");
+    assertThat(index.search("JUICE  Orange", 10)).containsExactly("Orange juice, fresh");
+    assertThat(index.search("juic apple", 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should find the few completions of a common word among many products that lack them")
+  void shouldApplyPrefixBeforeCappingCandidatesTest() {
+    for (long id = 100; id < 1100; id++) {
+      add(id, "Blue Hat " + id);
+    }
+    add(2000L, "Blue Shirt");
+    add(2001L, "Blue Shorts");
+
+    assertThat(index.search("blue sh", 2)).containsExactly("Blue Shirt", "Blue Shorts");
+  }
+
+  @Test
+  @DisplayName("Should apply the limit after ranking")
+  void shouldLimitResultsTest() {
+    assertThat(index.search("juice", 2)).containsExactly("Apple Juice", "Pineapple Juice");
+  }
+
+  @Test
+  @DisplayName("Should reindex a product whose name changed")
+  void shouldReplaceRenamedProductTest() {
+    add(3L, "Cranberry Sauce");
+
+    assertThat(index.search("applesauce", 10)).isEmpty();
+    assertThat(index.search("sauce", 10)).containsExactly("Cranberry Sauce");
+  }
+
+  @Test
+  @DisplayName("Should ignore blank queries and punctuation")
+  void shouldIgnoreBlankQueryTest() {
+    assertThat(index.search("  ,; ", 10)).isEmpty();
+    assertThat(ProductSearchIndex.words("Orange juice, fresh")).isEqualTo(List.of("orange", "juice", "fresh"));
+  }
+
+  private void add(Long id, String name) {
+    index.add(new ProductResponse(id, name, Money.ofCents(100), 1));
+  }
+}
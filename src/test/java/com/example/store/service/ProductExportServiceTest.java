@@ -0,0 +1,54 @@
+package com.example.store.service;
+
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import com.example.store.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private StockWriteBuffer stockWriteBuffer;
+
+  @Test
+  @DisplayName("Should export stock still waiting in the write-behind buffer")
+  void shouldOverlayPendingStockTest() throws Exception {
+    ProductExportService productExportService =
+        new ProductExportService(productRepository, new ObjectMapper(), entityManager, stockWriteBuffer);
+    when(productRepository.streamAll()).thenReturn(Stream.of(
+        new ProductResponse(1L, "Apple", Money.parse("1.00"), 5, 0L),
+        new ProductResponse(2L, "Banana", Money.parse("0.99"), 8, 0L)));
+    when(stockWriteBuffer.pendingStock(1L)).thenReturn(OptionalInt.of(3));
+    when(stockWriteBuffer.pendingStock(2L)).thenReturn(OptionalInt.empty());
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    productExportService.export(ProductExportFormat.CSV, outputStream);
+
+    assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("""
+        id,name,price,stock
+        1,Apple,1.00,3
+        2,Banana,0.99,8
+        """);
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.store.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductFilterTest {
+
+  @Test
+  @DisplayName("Should fold equivalent stock parameters into equal filters")
+  void shouldNormalizeStockParametersTest() {
+    assertThat(ProductFilter.of(null, null, null, null)).isSameAs(ProductFilter.NONE);
+    assertThat(ProductFilter.of(null, null, null, 0)).isSameAs(ProductFilter.NONE);
+    assertThat(ProductFilter.of(null, null, true, null)).isEqualTo(ProductFilter.of(null, null, null, 1));
+    assertThat(ProductFilter.of(null, null, true, 5)).isEqualTo(ProductFilter.of(null, null, null, 5));
+    assertThat(ProductFilter.of(new BigDecimal("1.0"), null, null, null))
+        .isEqualTo(ProductFilter.of(new BigDecimal("1.00"), null, null, null));
+  }
+
+  @Test
+  @DisplayName("Should report whether stock changes affect the filtered pages")
+  void shouldReportStockDependencyTest() {
+    assertThat(ProductFilter.of(BigDecimal.ONE, null, null, null).dependsOnStock()).isFalse();
+    assertThat(ProductFilter.of(null, null, true, null).dependsOnStock()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should reject inconsistent or invalid ranges")
+  void shouldRejectInvalidRangesTest() {
+    assertThatThrownBy(() -> ProductFilter.of(BigDecimal.TEN, BigDecimal.ONE, null, null))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ProductFilter.of(new BigDecimal("0.001"), null, null, null))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ProductFilter.of(null, null, null, -1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ProductFilter.of(null, null, false, 3))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
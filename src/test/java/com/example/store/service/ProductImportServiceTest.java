@@ -0,0 +1,185 @@
+package com.example.store.service;
+
+import com.example.store.dto.BulkImportResult;
+import com.example.store.dto.ProductRequest;
+import com.example.store.mapper.ProductMapper;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import com.example.store.search.ProductSearchIndex;
+import com.example.store.snapshot.ProductSnapshot;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private Session session;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private ProductCounter productCounter;
+
+  @Mock
+  private ProductSnapshot productSnapshot;
+
+  @Mock
+  private ProductSearchIndex productSearchIndex;
+
+  private final CacheManager cacheManager = new ConcurrentMapCacheManager("page", "single");
+
+  private ProductImportService productImportService;
+
+  @BeforeEach
+  void setup() {
+    lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+    productImportService = new ProductImportService(productRepository, new ProductMapper(), entityManager,
+        new TransactionTemplate(transactionManager), Validation.buildDefaultValidatorFactory().getValidator(),
+        cacheManager, productCounter, productSnapshot, productSearchIndex, 2);
+  }
+
+  @Test
+  @DisplayName("Should insert valid products in batches and clear the page cache once")
+  void shouldInsertInBatchesTest() {
+    cacheManager.getCache("page").put("key", "value");
+    List<ProductRequest> requests = List.of(
+        new ProductRequest("apple", BigDecimal.ONE, 1),
+        new ProductRequest("banana", BigDecimal.ONE, 1),
+        new ProductRequest("", BigDecimal.ONE, 1),
+        new ProductRequest("cherry", BigDecimal.ONE, 1));
+
+    BulkImportResult result = productImportService.importProducts(requests.iterator());
+
+    assertThat(result.getReceived()).isEqualTo(4);
+    assertThat(result.getImported()).isEqualTo(3);
+    assertThat(result.getErrors()).hasSize(1);
+    assertThat(result.getErrors().get(0).getIndex()).isEqualTo(2);
+
+    verify(productRepository, times(2)).saveAll(anyList());
+    verify(productRepository, times(2)).flush();
+    verify(session, times(2)).setJdbcBatchSize(2);
+    verify(productCounter).add(3);
+    assertThat(cacheManager.getCache("page").get("key")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should retry a failed batch item by item and report duplicates")
+  void shouldReportDuplicatesFromFailedBatchTest() {
+    doThrow(duplicateName()).when(productRepository).flush();
+    when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> {
+      Product product = invocation.getArgument(0);
+      if (product.getName().equals("banana")) {
+        throw duplicateName();
+      }
+      return product;
+    });
+    List<ProductRequest> requests = List.of(
+        new ProductRequest("apple", BigDecimal.ONE, 1),
+        new ProductRequest("banana", BigDecimal.ONE, 1));
+
+    BulkImportResult result = productImportService.importProducts(requests.iterator());
+
+    assertThat(result.getImported()).isEqualTo(1);
+    assertThat(result.getErrors()).hasSize(1);
+    assertThat(result.getErrors().get(0).getName()).isEqualTo("banana");
+    assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Product already exists");
+    verify(productCounter).add(1);
+  }
+
+  @Test
+  @DisplayName("Should report an item that does not bind and import the ones after it")
+  void shouldSkipUnmappableItemTest() {
+    Iterator<ProductRequest> requests = iterator(
+        () -> new ProductRequest("apple", BigDecimal.ONE, 1),
+        () -> {
+          throw new RuntimeJsonMappingException("Cannot deserialize value of type `java.math.BigDecimal`");
+        },
+        () -> new ProductRequest("cherry", BigDecimal.ONE, 1));
+
+    BulkImportResult result = productImportService.importProducts(requests);
+
+    assertThat(result.getReceived()).isEqualTo(3);
+    assertThat(result.getImported()).isEqualTo(2);
+    assertThat(result.getErrors()).hasSize(1);
+    assertThat(result.getErrors().get(0).getIndex()).isEqualTo(1);
+    verify(productCounter).add(2);
+  }
+
+  @Test
+  @DisplayName("Should keep the items read before a syntax error and report it")
+  void shouldStopAtSyntaxErrorTest() {
+    Iterator<ProductRequest> requests = iterator(
+        () -> new ProductRequest("apple", BigDecimal.ONE, 1),
+        () -> {
+          throw new RuntimeException("Unexpected end-of-input", new IOException("Unexpected end-of-input"));
+        },
+        () -> new ProductRequest("cherry", BigDecimal.ONE, 1));
+
+    BulkImportResult result = productImportService.importProducts(requests);
+
+    assertThat(result.getReceived()).isEqualTo(2);
+    assertThat(result.getImported()).isEqualTo(1);
+    assertThat(result.getErrors()).hasSize(1);
+    assertThat(result.getErrors().get(0).getIndex()).isEqualTo(1);
+    verify(productCounter).add(1);
+  }
+
+  @SafeVarargs
+  private static Iterator<ProductRequest> iterator(Supplier<ProductRequest>... items) {
+    return new Iterator<>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < items.length;
+      }
+
+      @Override
+      public ProductRequest next() {
+        return items[next++].get();
+      }
+    };
+  }
+
+  private static DataIntegrityViolationException duplicateName() {
+    return new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException(
+        "could not execute statement", new SQLException("Unique index or primary key violation", "23505"),
+        "PUBLIC.UK_PRODUCT_NAME_INDEX_1"));
+  }
+}
@@ -5,6 +5,7 @@ import com.example.store.dto.ProductPage;
 import com.example.store.dto.ProductRequest;
 import com.example.store.dto.ProductResponse;
 import com.example.store.mapper.ProductMapper;
+import com.example.store.model.Money;
 import com.example.store.model.Product;
 import com.example.store.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -62,13 +63,13 @@ public class ProductServiceCacheTest {
       Product product1 = new Product.ProductBuilder()
           .id(1L)
           .name("Product 1")
-          .price(BigDecimal.valueOf(99.99))
+          .price(Money.parse("99.99"))
           .stock(10)
           .build();
       Product product2 = new Product.ProductBuilder()
           .id(2L)
           .name("Product 2")
-          .price(BigDecimal.valueOf(49.99))
+          .price(Money.parse("49.99"))
           .stock(5)
           .build();
       List<Product> products1 = List.of(product1);
@@ -96,10 +97,10 @@ public class ProductServiceCacheTest {
       Product newProduct = new Product.ProductBuilder()
           .id(32L)
           .name(request.getName())
-          .price(request.getPrice())
+          .price(Money.of(request.getPrice()))
           .stock(request.getStock())
           .build();
-      when(productRepository.save(newProduct)).thenReturn(newProduct);
+      when(productRepository.saveAndFlush(newProduct)).thenReturn(newProduct);
       when(productMapper.toProduct(request)).thenReturn(newProduct);
       productService.addProduct(request);
 
@@ -118,14 +119,14 @@ public class ProductServiceCacheTest {
       Product product1 = new Product.ProductBuilder()
           .id(1L)
           .name("Product 1")
-          .price(BigDecimal.valueOf(99.99))
+          .price(Money.parse("99.99"))
           .stock(10)
           .build();
 
       Product product2 = new Product.ProductBuilder()
           .id(2L)
           .name("Product 2")
-          .price(BigDecimal.valueOf(49.99))
+          .price(Money.parse("49.99"))
           .stock(5)
           .build();
       List<Product> products = List.of(product1, product2);
@@ -138,7 +139,7 @@ public class ProductServiceCacheTest {
 
       assertEquals(result1, result2);
 
-      verify(productRepository, times(1)).findAll(pageable);
+      verify(productRepository, times(1)).findAllBy(pageable);
 
       Cache cache = cacheManager.getCache("page");
       assertNotNull(cache);
@@ -156,15 +157,15 @@ public class ProductServiceCacheTest {
       Product product = new Product.ProductBuilder()
           .id(1L)
           .name("Onion")
-          .price(BigDecimal.valueOf(99.99))
+          .price(Money.parse("99.99"))
           .stock(10)
           .build();
 
-      ProductRequest productRequest = new ProductRequest(product.getName(), product.getPrice(), product.getStock());
+      ProductRequest productRequest = new ProductRequest(product.getName(), product.getPrice().toBigDecimal(), product.getStock());
       ProductResponse productResponse = new ProductResponse(product.getId(), product.getName(), product.getPrice(),
           product.getStock());
 
-      when(productRepository.save(any(Product.class))).thenReturn(product);
+      when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
       when(productMapper.toProductResponse(product)).thenReturn(productResponse);
 
       productService.addProduct(productRequest);
@@ -176,7 +177,7 @@ public class ProductServiceCacheTest {
       Product updated = new Product.ProductBuilder()
           .id(1L)
           .name("Onion")
-          .price(BigDecimal.valueOf(99.99))
+          .price(Money.parse("99.99"))
           .stock(16)
           .build();
       ProductResponse updatedResponse = new ProductResponse(updated.getId(), updated.getName(), updated.getPrice(),
@@ -190,5 +191,60 @@ public class ProductServiceCacheTest {
 
       assertNull(cache.get(product.getName()));
     }
+
+    @Test
+    @DisplayName("Should patch pages containing the product and evict only pages sorted by stock")
+    void updateProduct_targetedPageInvalidationTest() {
+      Product onion = new Product.ProductBuilder()
+          .id(1L)
+          .name("Onion")
+          .price(Money.parse("1.99"))
+          .stock(10)
+          .build();
+      Product garlic = new Product.ProductBuilder()
+          .id(2L)
+          .name("Garlic")
+          .price(Money.parse("0.99"))
+          .stock(5)
+          .build();
+      ProductResponse onionResponse = new ProductResponse(1L, "Onion", onion.getPrice(), 10);
+      ProductResponse garlicResponse = new ProductResponse(2L, "Garlic", garlic.getPrice(), 5);
+      when(productMapper.toProductResponse(onion)).thenReturn(onionResponse);
+      when(productMapper.toProductResponse(garlic)).thenReturn(garlicResponse);
+
+      PageRequest byName = PageRequest.of(0, 10, Sort.by("name"));
+      PageRequest byStock = PageRequest.of(0, 10, Sort.by("stock"));
+      PageRequest withoutProduct = PageRequest.of(0, 1, Sort.by("price"));
+      when(productRepository.findAll(byName)).thenReturn(new PageImpl<>(List.of(garlic, onion), byName, 2));
+      when(productRepository.findAll(byStock)).thenReturn(new PageImpl<>(List.of(garlic, onion), byStock, 2));
+      when(productRepository.findAll(withoutProduct)).thenReturn(new PageImpl<>(List.of(garlic), withoutProduct, 2));
+      productService.getProducts(byName);
+      productService.getProducts(byStock);
+      ProductPage untouched = productService.getProducts(withoutProduct);
+
+      Product updated = new Product.ProductBuilder()
+          .id(1L)
+          .name("Onion")
+          .price(onion.getPrice())
+          .stock(3)
+          .build();
+      ProductResponse updatedResponse = new ProductResponse(1L, "Onion", onion.getPrice(), 3);
+      when(productRepository.findByName("Onion")).thenReturn(Optional.of(onion));
+      when(productRepository.save(onion)).thenReturn(updated);
+      when(productMapper.toProductResponse(updated)).thenReturn(updatedResponse);
+
+      productService.updateStock("Onion", 3);
+
+      Cache pageCache = cacheManager.getCache("page");
+      assertNull(pageCache.get(PageableCacheKey.of(byStock)));
+
+      ProductPage patched = pageCache.get(PageableCacheKey.of(byName), ProductPage.class);
+      assertNotNull(patched);
+      assertSame(garlicResponse, patched.getContent().get(0));
+      assertEquals(3, patched.getContent().get(1).getStock());
+      assertEquals(2, patched.getTotalElements());
+
+      assertSame(untouched, pageCache.get(PageableCacheKey.of(withoutProduct), ProductPage.class));
+    }
   }
 }
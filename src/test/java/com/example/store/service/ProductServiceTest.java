@@ -1,25 +1,44 @@
 package com.example.store.service;
 
+import com.example.store.cache.PageCacheInvalidator;
+import com.example.store.dto.ProductLookup;
 import com.example.store.dto.ProductPage;
 import com.example.store.dto.ProductRequest;
 import com.example.store.dto.ProductResponse;
+import com.example.store.exception.DuplicateResourceException;
+import com.example.store.exception.InsufficientStockException;
 import com.example.store.exception.ResourceNotFoundException;
 import com.example.store.mapper.ProductMapper;
+import com.example.store.model.Money;
 import com.example.store.model.Product;
 import com.example.store.model.Product.ProductBuilder;
 import com.example.store.repository.ProductRepository;
+import com.example.store.search.ProductSearchIndex;
+import com.example.store.snapshot.ProductSnapshot;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +56,24 @@ class ProductServiceTest {
   @Mock
   private ProductMapper productMapper;
 
+  @Mock
+  private PageCacheInvalidator pageCacheInvalidator;
+
+  @Mock
+  private ProductCounter productCounter;
+
+  @Mock
+  private CacheManager cacheManager;
+
+  @Mock
+  private StockWriteBuffer stockWriteBuffer;
+
+  @Mock
+  private ProductSnapshot productSnapshot;
+
+  @Mock
+  private ProductSearchIndex productSearchIndex;
+
   @Nested
   @DisplayName("Creating product")
   class Add_Product {
@@ -47,14 +84,14 @@ class ProductServiceTest {
       Product product = new ProductBuilder()
           .id(2L)
           .name(request.getName())
-          .price(request.getPrice())
+          .price(Money.of(request.getPrice()))
           .stock(request.getStock())
           .build();
 
       ProductResponse productResponse = new ProductResponse(product.getId(), product.getName(), product.getPrice(), product.getStock());
 
       when(productMapper.toProduct(request)).thenReturn(product);
-      when(productRepository.save(product)).thenReturn(product);
+      when(productRepository.saveAndFlush(product)).thenReturn(product);
       when(productMapper.toProductResponse(product)).thenReturn(productResponse);
 
       ProductResponse actual = productService.addProduct(request);
@@ -62,6 +99,41 @@ class ProductServiceTest {
       assertThat(actual).isNotNull()
           .usingRecursiveComparison()
           .isEqualTo(productResponse);
+      verify(productCounter, times(1)).add(1);
+    }
+  }
+
+  @Nested
+  @DisplayName("Creating duplicate product")
+  class Add_Duplicate_Product {
+    @Test
+    @DisplayName("Should translate unique name violation into DuplicateResourceException")
+    void shouldThrowExceptionForDuplicateNameTest() {
+      ProductRequest request = new ProductRequest("banana", BigDecimal.TEN, 10);
+      Product product = new ProductBuilder().name("banana").price(Money.ofCents(1000)).stock(10).build();
+
+      when(productMapper.toProduct(request)).thenReturn(product);
+      when(productRepository.saveAndFlush(product)).thenThrow(duplicateName());
+
+      assertThatThrownBy(() -> productService.addProduct(request))
+          .isInstanceOf(DuplicateResourceException.class)
+          .hasMessage("Product already exists");
+    }
+
+    @Test
+    @DisplayName("Should rethrow integrity violations of other constraints")
+    void shouldRethrowOtherConstraintViolationTest() {
+      ProductRequest request = new ProductRequest("banana", BigDecimal.TEN, 10);
+      Product product = new ProductBuilder().name("banana").price(Money.ofCents(1000)).stock(10).build();
+      DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+          new ConstraintViolationException("could not execute statement",
+              new SQLException("NULL not allowed for column \"PRICE\"", "23502"), null));
+
+      when(productMapper.toProduct(request)).thenReturn(product);
+      when(productRepository.saveAndFlush(product)).thenThrow(notNull);
+
+      assertThatThrownBy(() -> productService.addProduct(request)).isSameAs(notNull);
+      verifyNoInteractions(productCounter);
     }
   }
 
@@ -75,13 +147,13 @@ class ProductServiceTest {
       Product product1 = new ProductBuilder()
           .id(1L)
           .name("banana")
-          .price(BigDecimal.valueOf(10))
+          .price(Money.ofCents(1000))
           .stock(10)
           .build();
       Product product2 = new ProductBuilder()
           .id(2L)
           .name("apple")
-          .price(BigDecimal.valueOf(1))
+          .price(Money.ofCents(100))
           .stock(5)
           .build();
       Page<Product> productPage = new PageImpl<>(List.of(product1, product2));
@@ -105,8 +177,55 @@ class ProductServiceTest {
       assertThat(response.getSize()).isEqualTo(2);
       assertThat(response.getTotalElements()).isEqualTo(2);
       assertThat(response.getTotalPages()).isEqualTo(1);
+      assertThat(response.isHasNext()).isFalse();
 
       verify(productRepository, times(1)).findAll(pageable);
+      verify(productCounter, never()).get();
+    }
+
+    @Test
+    @DisplayName("Should take totals from the product counter instead of a count query")
+    void shouldUseProductCounterForTotalsTest() {
+      Pageable pageable = PageRequest.of(1, 1, Sort.by(Sort.Direction.ASC, "name"));
+      Product product = new ProductBuilder()
+          .id(1L)
+          .name("banana")
+          .price(Money.ofCents(1000))
+          .stock(10)
+          .build();
+      ProductResponse productResponse = new ProductResponse(
+          product.getId(), product.getName(), product.getPrice(), product.getStock());
+
+      when(productCounter.isEnabled()).thenReturn(true);
+      when(productRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(product), pageable, true));
+      when(productMapper.toProductResponse(product)).thenReturn(productResponse);
+      when(productCounter.get()).thenReturn(5L);
+
+      ProductPage response = productService.getProducts(pageable);
+
+      assertThat(response.getPage()).isEqualTo(1);
+      assertThat(response.getSize()).isEqualTo(1);
+      assertThat(response.getTotalElements()).isEqualTo(5);
+      assertThat(response.getTotalPages()).isEqualTo(5);
+      assertThat(response.isHasNext()).isTrue();
+
+      verify(productRepository, never()).count();
+      verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should take the total from the product counter for an empty page past the end")
+    void shouldUseProductCounterPastTheEndTest() {
+      Pageable pageable = PageRequest.of(7, 10, Sort.by(Sort.Direction.ASC, "name"));
+      when(productCounter.isEnabled()).thenReturn(true);
+      when(productRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+      when(productCounter.get()).thenReturn(42L);
+
+      ProductPage response = productService.getProducts(pageable);
+
+      assertThat(response.getContent()).isEmpty();
+      assertThat(response.getTotalElements()).isEqualTo(42);
+      assertThat(response.getTotalPages()).isEqualTo(5);
     }
 
     @Test
@@ -123,6 +242,74 @@ class ProductServiceTest {
     }
   }
 
+  @Nested
+  @DisplayName("Getting products by name")
+  class Get_Products_By_Name {
+    @Test
+    @DisplayName("Should answer hits from cache, resolve misses in one query and keep request order")
+    void shouldLookupProductsByNameTest() {
+      ConcurrentMapCache singleCache = new ConcurrentMapCache("single");
+      ProductResponse cachedApple = new ProductResponse(1L, "apple", Money.ofCents(100), 3);
+      singleCache.put("apple", cachedApple);
+      Product banana = new ProductBuilder()
+          .id(2L)
+          .name("banana")
+          .price(Money.ofCents(1000))
+          .stock(4)
+          .build();
+      ProductResponse bananaResponse = new ProductResponse(2L, "banana", Money.ofCents(1000), 4);
+
+      when(cacheManager.getCache("single")).thenReturn(singleCache);
+      when(productRepository.findByNameIn(Set.of("banana", "cherry"))).thenReturn(List.of(banana));
+      when(productMapper.toProductResponse(banana)).thenReturn(bananaResponse);
+
+      List<ProductLookup> result = productService.getProductsByName(List.of("banana", "cherry", "apple"));
+
+      assertThat(result).extracting(ProductLookup::getName).containsExactly("banana", "cherry", "apple");
+      assertThat(result).extracting(ProductLookup::isFound).containsExactly(true, false, true);
+      assertThat(result.get(0).getProduct()).isSameAs(bananaResponse);
+      assertThat(result.get(2).getProduct()).isSameAs(cachedApple);
+      assertThat(singleCache.get("banana", ProductResponse.class)).isSameAs(bananaResponse);
+      verify(productRepository, times(1)).findByNameIn(any());
+    }
+
+    @Test
+    @DisplayName("Should not back-fill the cache while the snapshot is enabled")
+    void shouldNotBackFillCacheWithSnapshotTest() {
+      ConcurrentMapCache singleCache = new ConcurrentMapCache("single");
+      Product banana = new ProductBuilder()
+          .id(2L)
+          .name("banana")
+          .price(Money.ofCents(1000))
+          .stock(4)
+          .build();
+      ProductResponse bananaResponse = new ProductResponse(2L, "banana", Money.ofCents(1000), 4);
+
+      when(cacheManager.getCache("single")).thenReturn(singleCache);
+      when(productSnapshot.isEnabled()).thenReturn(true);
+      when(productRepository.findByNameIn(Set.of("banana"))).thenReturn(List.of(banana));
+      when(productMapper.toProductResponse(banana)).thenReturn(bananaResponse);
+
+      List<ProductLookup> result = productService.getProductsByName(List.of("banana"));
+
+      assertThat(result.get(0).getProduct()).isSameAs(bananaResponse);
+      assertThat(singleCache.get("banana")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not query the repository when every name is cached")
+    void shouldNotQueryRepositoryOnFullCacheHitTest() {
+      ConcurrentMapCache singleCache = new ConcurrentMapCache("single");
+      singleCache.put("apple", new ProductResponse(1L, "apple", Money.ofCents(100), 3));
+      when(cacheManager.getCache("single")).thenReturn(singleCache);
+
+      List<ProductLookup> result = productService.getProductsByName(List.of("apple"));
+
+      assertThat(result).extracting(ProductLookup::isFound).containsExactly(true);
+      verifyNoInteractions(productRepository);
+    }
+  }
+
   @Nested
   @DisplayName("Updating product")
   class Update_Product {
@@ -132,14 +319,14 @@ class ProductServiceTest {
       Product cached = new ProductBuilder()
           .id(2L)
           .name("banana")
-          .price(BigDecimal.valueOf(3.99))
+          .price(Money.parse("3.99"))
           .stock(10)
           .build();
 
       Product updated = new ProductBuilder()
           .id(2L)
           .name("banana")
-          .price(BigDecimal.valueOf(3.99))
+          .price(Money.parse("3.99"))
           .stock(30)
           .build();
 
@@ -158,6 +345,47 @@ class ProductServiceTest {
 
       verify(productRepository, times(1)).save(any());
       verify(productMapper, times(1)).toProductResponse(any());
+      verify(pageCacheInvalidator, times(1)).onStockChanged(productResponse);
+    }
+
+    @Test
+    @DisplayName("Should buffer the new stock instead of saving when write-behind is enabled")
+    void shouldBufferStockWhenWriteBehindEnabledTest() {
+      Product product = new ProductBuilder()
+          .id(2L)
+          .name("banana")
+          .price(Money.parse("3.99"))
+          .stock(10)
+          .build();
+      ProductResponse current = new ProductResponse(2L, "banana", product.getPrice(), 10);
+
+      when(stockWriteBuffer.isEnabled()).thenReturn(true);
+      when(productRepository.findByName("banana")).thenReturn(Optional.of(product));
+      when(productMapper.toProductResponse(product)).thenReturn(current);
+
+      ProductResponse actual = productService.updateStock("banana", 30);
+
+      assertThat(actual.getStock()).isEqualTo(30);
+      verify(stockWriteBuffer).write(2L, 30);
+      verify(productRepository, never()).save(any());
+      verify(pageCacheInvalidator).onStockChanged(actual);
+    }
+
+    @Test
+    @DisplayName("Should buffer the new stock of a cached product without reading the database")
+    void shouldBufferStockOfCachedProductTest() {
+      ConcurrentMapCache singleCache = new ConcurrentMapCache("single");
+      singleCache.put("banana", new ProductResponse(2L, "banana", Money.parse("3.99"), 10, 4));
+      when(cacheManager.getCache("single")).thenReturn(singleCache);
+      when(stockWriteBuffer.isEnabled()).thenReturn(true);
+
+      ProductResponse actual = productService.updateStock("banana", 30);
+
+      assertThat(actual.getStock()).isEqualTo(30);
+      assertThat(actual.getVersion()).isEqualTo(4);
+      assertThat(singleCache.get("banana", ProductResponse.class)).isSameAs(actual);
+      verify(stockWriteBuffer).write(2L, 30);
+      verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -172,6 +400,140 @@ class ProductServiceTest {
       verify(productRepository, times(1)).findByName("random");
       verifyNoMoreInteractions(productRepository);
       verifyNoInteractions(productMapper);
+      verifyNoInteractions(pageCacheInvalidator);
     }
   }
-}
\ No newline at end of file
+
+  @Nested
+  @DisplayName("Adjusting stock")
+  class Adjust_Stock {
+    @Test
+    @DisplayName("Should apply delta with a single conditional update")
+    void shouldAdjustStockTest() {
+      Product updated = new ProductBuilder()
+          .id(2L)
+          .name("banana")
+          .price(Money.parse("3.99"))
+          .stock(7)
+          .build();
+      ProductResponse productResponse = new ProductResponse(updated.getId(), updated.getName(), updated.getPrice(), updated.getStock());
+
+      when(productRepository.adjustStock("banana", -3)).thenReturn(1);
+      when(productRepository.findByName("banana")).thenReturn(Optional.of(updated));
+      when(productMapper.toProductResponse(updated)).thenReturn(productResponse);
+
+      ProductResponse actual = productService.adjustStock("banana", -3);
+
+      assertThat(actual).isSameAs(productResponse);
+      verify(productRepository, never()).save(any());
+      verify(pageCacheInvalidator, times(1)).onStockChanged(productResponse);
+    }
+
+    @Test
+    @DisplayName("Should write only the buffered stock of the adjusted product before the delta")
+    void shouldFlushBufferedStockOfAdjustedProductTest() {
+      ConcurrentMapCache singleCache = new ConcurrentMapCache("single");
+      singleCache.put("banana", new ProductResponse(2L, "banana", Money.parse("3.99"), 10));
+      when(cacheManager.getCache("single")).thenReturn(singleCache);
+      when(stockWriteBuffer.isEnabled()).thenReturn(true);
+      when(productRepository.adjustStock("banana", -3)).thenReturn(1);
+      when(productRepository.findByName("banana")).thenReturn(Optional.of(new ProductBuilder()
+          .id(2L)
+          .name("banana")
+          .price(Money.parse("3.99"))
+          .stock(7)
+          .build()));
+
+      productService.adjustStock("banana", -3);
+
+      InOrder order = inOrder(stockWriteBuffer, productRepository);
+      order.verify(stockWriteBuffer).flush(2L);
+      order.verify(productRepository).adjustStock("banana", -3);
+      verify(stockWriteBuffer, never()).flush();
+    }
+
+    @Test
+    @DisplayName("Should hold buffered writes of the product until the delta is applied")
+    void shouldNotBufferStockDuringAdjustmentTest() throws Exception {
+      ConcurrentMapCache singleCache = new ConcurrentMapCache("single");
+      singleCache.put("banana", new ProductResponse(2L, "banana", Money.parse("3.99"), 10));
+      when(cacheManager.getCache("single")).thenReturn(singleCache);
+      when(stockWriteBuffer.isEnabled()).thenReturn(true);
+      when(productRepository.adjustStock("banana", -3)).thenReturn(1);
+      when(productRepository.findByName("banana")).thenReturn(Optional.of(new ProductBuilder()
+          .id(2L)
+          .name("banana")
+          .price(Money.parse("3.99"))
+          .stock(7)
+          .build()));
+      CountDownLatch flushing = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      doAnswer(invocation -> {
+        flushing.countDown();
+        release.await();
+        return null;
+      }).when(stockWriteBuffer).flush(2L);
+
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        Future<ProductResponse> adjustment = executor.submit(() -> productService.adjustStock("banana", -3));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<ProductResponse> update = executor.submit(() -> productService.updateStock("banana", 30));
+        TimeUnit.MILLISECONDS.sleep(100);
+        verify(stockWriteBuffer, never()).write(anyLong(), anyInt());
+
+        release.countDown();
+        adjustment.get(5, TimeUnit.SECONDS);
+        update.get(5, TimeUnit.SECONDS);
+      }
+
+      InOrder order = inOrder(stockWriteBuffer, productRepository);
+      order.verify(stockWriteBuffer).flush(2L);
+      order.verify(productRepository).adjustStock("banana", -3);
+      order.verify(productRepository).findByName("banana");
+      order.verify(stockWriteBuffer).write(2L, 30);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when stock would go negative")
+    void shouldThrowExceptionWhenStockInsufficientTest() {
+      when(productRepository.adjustStock("banana", -30)).thenReturn(0);
+      when(productRepository.existsByName("banana")).thenReturn(true);
+
+      assertThatThrownBy(() -> productService.adjustStock("banana", -30))
+          .isInstanceOf(InsufficientStockException.class)
+          .hasMessage("Insufficient stock");
+
+      verifyNoInteractions(productMapper, pageCacheInvalidator);
+    }
+
+    @Test
+    @DisplayName("Should reject a delta that would overflow the stock")
+    void shouldRejectStockOverflowTest() {
+      when(productRepository.adjustStock("banana", Integer.MAX_VALUE)).thenReturn(0);
+      when(productRepository.existsByName("banana")).thenReturn(true);
+
+      assertThatThrownBy(() -> productService.adjustStock("banana", Integer.MAX_VALUE))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("Stock cannot exceed " + Integer.MAX_VALUE);
+
+      verifyNoInteractions(productMapper, pageCacheInvalidator);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when product not found")
+    void shouldThrowExceptionWhenProductNotFoundTest() {
+      when(productRepository.adjustStock("random", 1)).thenReturn(0);
+      when(productRepository.existsByName("random")).thenReturn(false);
+
+      assertThatThrownBy(() -> productService.adjustStock("random", 1))
+          .isInstanceOf(ResourceNotFoundException.class)
+          .hasMessage("Product not found");
+    }
+  }
+
+  private static DataIntegrityViolationException duplicateName() {
+    return new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException(
+        "could not execute statement", new SQLException("Unique index or primary key violation", "23505"),
+        "PUBLIC.UK_PRODUCT_NAME_INDEX_1"));
+  }
+}
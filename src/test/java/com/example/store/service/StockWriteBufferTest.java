@@ -0,0 +1,138 @@
+package com.example.store.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockWriteBufferTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @TempDir
+  private Path journalDirectory;
+
+  @Test
+  @DisplayName("Should merge repeated updates and write them with one batched UPDATE")
+  void shouldCoalesceUpdatesIntoOneBatchTest() throws Exception {
+    StockWriteBuffer buffer = newBuffer();
+    buffer.afterSingletonsInstantiated();
+
+    buffer.write(2L, 10);
+    buffer.write(1L, 7);
+    buffer.write(2L, 4);
+    assertThat(buffer.pendingStock(2L)).hasValue(4);
+
+    buffer.flush();
+
+    assertThat(batches()).singleElement().satisfies(rows -> {
+      assertThat(rows).hasSize(2);
+      assertThat(rows.get(0)).containsExactly(7, 1L);
+      assertThat(rows.get(1)).containsExactly(4, 2L);
+    });
+    assertThat(buffer.pendingStock(2L)).isEmpty();
+    buffer.destroy();
+  }
+
+  @Test
+  @DisplayName("Should keep buffered updates when the flush fails")
+  void shouldRequeueUpdatesWhenFlushFailsTest() throws Exception {
+    StockWriteBuffer buffer = newBuffer();
+    buffer.afterSingletonsInstantiated();
+    buffer.write(1L, 7);
+    when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("database down"));
+
+    assertThatThrownBy(buffer::flush).hasMessage("database down");
+
+    assertThat(buffer.pendingStock(1L)).hasValue(7);
+  }
+
+  @Test
+  @DisplayName("Should replay the journal left by a crash on startup")
+  void shouldReplayJournalOnStartupTest() throws Exception {
+    StockWriteBuffer crashed = newBuffer();
+    crashed.afterSingletonsInstantiated();
+    crashed.write(3L, 12);
+    crashed.write(3L, 9);
+    verifyNoInteractions(jdbcTemplate);
+
+    newBuffer().afterSingletonsInstantiated();
+
+    assertThat(batches()).singleElement().satisfies(rows -> {
+      assertThat(rows).hasSize(1);
+      assertThat(rows.get(0)).containsExactly(9, 3L);
+    });
+  }
+
+  @Test
+  @DisplayName("Should acknowledge concurrent writers and replay all of their updates")
+  void shouldGroupConcurrentWritesTest() throws Exception {
+    StockWriteBuffer crashed = newBuffer();
+    crashed.afterSingletonsInstantiated();
+    try (ExecutorService writers = Executors.newFixedThreadPool(8)) {
+      for (long productId = 1; productId <= 200; productId++) {
+        long id = productId;
+        writers.execute(() -> crashed.write(id, (int) id));
+      }
+    }
+
+    newBuffer().afterSingletonsInstantiated();
+
+    assertThat(batches()).singleElement().satisfies(rows -> {
+      assertThat(rows).hasSize(200);
+      assertThat(rows).allSatisfy(row -> assertThat(((Integer) row[0]).longValue()).isEqualTo(row[1]));
+    });
+  }
+
+  @Test
+  @DisplayName("Should write one product on its own and not replay it after a crash")
+  void shouldFlushSingleProductTest() throws Exception {
+    StockWriteBuffer crashed = newBuffer();
+    crashed.afterSingletonsInstantiated();
+    crashed.write(1L, 7);
+    crashed.write(2L, 4);
+
+    crashed.flush(1L);
+
+    verify(jdbcTemplate).update("update product set stock = ?, version = version + 1 where id = ?", 7, 1L);
+    assertThat(crashed.pendingStock(1L)).isEmpty();
+    assertThat(crashed.pendingStock(2L)).hasValue(4);
+
+    newBuffer().afterSingletonsInstantiated();
+
+    assertThat(batches()).singleElement().satisfies(rows -> {
+      assertThat(rows).hasSize(1);
+      assertThat(rows.get(0)).containsExactly(4, 2L);
+    });
+  }
+
+  private StockWriteBuffer newBuffer() {
+    return new StockWriteBuffer(jdbcTemplate, true, Duration.ofHours(1), 1000,
+        journalDirectory.resolve("stock-journal.bin"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<List<Object[]>> batches() {
+    ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq("update product set stock = ?, version = version + 1 where id = ?"), rows.capture());
+    return rows.getAllValues();
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.store.snapshot;
+
+import com.example.store.cache.CacheInvalidation;
+import com.example.store.cache.CacheInvalidationBus;
+import com.example.store.cache.LocalCacheInvalidationBus;
+import com.example.store.dto.ProductResponse;
+import com.example.store.model.Money;
+import com.example.store.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSnapshotTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @TempDir
+  private Path directory;
+
+  private final CacheInvalidationBus bus = new LocalCacheInvalidationBus();
+
+  @BeforeEach
+  void setup() {
+    lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+  }
+
+  @Test
+  @DisplayName("Should build the snapshot from the product table and serve lookups by name")
+  void shouldRebuildAndFindByNameTest() throws Exception {
+    when(productRepository.streamAll()).thenReturn(Stream.of(
+        new ProductResponse(1L, "Apple", Money.parse("1.99"), 5),
+        new ProductResponse(2L, "Äpfel", Money.parse("2.50"), 7)));
+    ProductSnapshot snapshot = newSnapshot();
+    snapshot.afterSingletonsInstantiated();
+
+    assertThat(snapshot.find("Äpfel")).hasValueSatisfying(product -> {
+      assertThat(product.getId()).isEqualTo(2L);
+      assertThat(product.getPrice()).isEqualTo(Money.parse("2.50"));
+      assertThat(product.getStock()).isEqualTo(7);
+    });
+    assertThat(snapshot.find("Banana")).isEmpty();
+    snapshot.destroy();
+  }
+
+  @Test
+  @DisplayName("Should apply writes incrementally and reuse a cleanly closed file on restart")
+  void shouldApplyWritesAndRestartWarmTest() throws Exception {
+    when(productRepository.streamAll()).thenReturn(Stream.of(new ProductResponse(1L, "Apple", Money.ofCents(100), 5)));
+    ProductSnapshot snapshot = newSnapshot();
+    snapshot.afterSingletonsInstantiated();
+
+    snapshot.put(new ProductResponse(1L, "Apple", Money.ofCents(100), 3));
+    snapshot.put(new ProductResponse(2L, "Banana", Money.ofCents(1000), 9));
+    snapshot.destroy();
+
+    when(productRepository.count()).thenReturn(2L);
+    ProductSnapshot restarted = newSnapshot();
+    restarted.afterSingletonsInstantiated();
+
+    verify(productRepository, times(1)).streamAll();
+    assertThat(restarted.find("Apple").map(ProductResponse::getStock)).hasValue(3);
+    assertThat(restarted.find("Banana").map(ProductResponse::getId)).hasValue(2L);
+    restarted.destroy();
+  }
+
+  @Test
+  @DisplayName("Should rebuild on restart when products changed while the instance was down")
+  void shouldRebuildWhenCatalogChangedTest() throws Exception {
+    when(productRepository.streamAll())
+        .thenReturn(Stream.of(new ProductResponse(1L, "Apple", Money.ofCents(100), 5, 3)))
+        .thenReturn(Stream.of(new ProductResponse(1L, "Apple", Money.ofCents(100), 2, 4)));
+    ProductSnapshot snapshot = newSnapshot();
+    snapshot.afterSingletonsInstantiated();
+    snapshot.destroy();
+
+    when(productRepository.count()).thenReturn(1L);
+    when(productRepository.sumVersions()).thenReturn(4L);
+    ProductSnapshot restarted = newSnapshot();
+    restarted.afterSingletonsInstantiated();
+
+    verify(productRepository, times(2)).streamAll();
+    assertThat(restarted.find("Apple").map(ProductResponse::getStock)).hasValue(2);
+    restarted.destroy();
+  }
+
+  @Test
+  @DisplayName("Should apply stock changes from other instances unless they are older than the stored product")
+  void shouldApplyRemoteStockChangesTest() throws Exception {
+    when(productRepository.streamAll())
+        .thenReturn(Stream.of(new ProductResponse(1L, "Apple", Money.ofCents(100), 5, 3)));
+    ProductSnapshot snapshot = newSnapshot();
+    snapshot.afterSingletonsInstantiated();
+
+    bus.publish(new CacheInvalidation.StockChanged("other",
+        new ProductResponse(1L, "Apple", Money.ofCents(100), 4, 4)));
+    bus.publish(new CacheInvalidation.StockChanged("other",
+        new ProductResponse(1L, "Apple", Money.ofCents(100), 9, 3)));
+
+    assertThat(snapshot.find("Apple")).hasValueSatisfying(product -> {
+      assertThat(product.getStock()).isEqualTo(4);
+      assertThat(product.getVersion()).isEqualTo(4);
+    });
+    snapshot.destroy();
+  }
+
+  private ProductSnapshot newSnapshot() {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("cacheInvalidationBus", bus);
+    return new ProductSnapshot(productRepository, new TransactionTemplate(transactionManager),
+        beanFactory.getBeanProvider(CacheInvalidationBus.class), true,
+        directory.resolve("product-snapshot.bin"), 16, DataSize.ofKilobytes(64));
+  }
+}